@@ -1,6 +1,7 @@
 plugins {
     java
     id("socotra-ec-config-developer") version "v0.6.5"
+    id("me.champeau.jmh") version "0.7.2"
 }
 
 `socotra-config-developer` {
@@ -18,6 +19,135 @@ repositories {
     mavenCentral()
 }
 
+// -PofflineModel compiles and runs the plugin against the stand-in com.socotra.coremodel classes in
+// src/offlineModel instead of the tenant-generated ones, so it can be rated and load-tested locally.
+val offlineModel = providers.gradleProperty("offlineModel").isPresent
+
+// slf4j-simple for checkAllocationBudget, so the INFO rate() summary is written and its allocations counted
+val allocationBudgetLogging: Configuration by configurations.creating
+
+sourceSets {
+    create("offlineModel")
+    // Build-time generator for VehicleType, RateTableData, CoverageType and VehicleCoverages, see generateRatingConstants
+    create("codegen")
+}
+
 dependencies {
     testImplementation("org.junit.jupiter:junit-jupiter:5.8.2")
+    "codegenImplementation"(localGroovy())
+
+    if (offlineModel) {
+        implementation(sourceSets["offlineModel"].output)
+        implementation("org.slf4j:slf4j-api:2.0.16")
+        runtimeOnly("org.slf4j:slf4j-nop:2.0.16")
+        allocationBudgetLogging("org.slf4j:slf4j-simple:2.0.16")
+    }
+}
+
+// Rating benchmarks in src/jmh: ./gradlew jmh [-PjmhInclude=RatingBenchmark]
+jmh {
+    jmhVersion.set("1.37")
+    includes.set(listOf(providers.gradleProperty("jmhInclude").getOrElse(".*")))
+    benchmarkMode.set(listOf("thrpt", "avgt"))
+    profilers.set(listOf("gc"))
+    resultFormat.set("JSON")
+}
+
+// In-process concurrent load test: ./gradlew ratingLoadTest -PofflineModel -PloadArgs="--threads=32"
+tasks.register<JavaExec>("ratingLoadTest") {
+    group = "verification"
+    description = "Rates synthetic quotes in-process at high concurrency and reports throughput and latency."
+    classpath = sourceSets["jmh"].runtimeClasspath
+    mainClass.set("com.socotra.deployment.customer.RatingLoadHarness")
+    args(providers.gradleProperty("loadArgs").getOrElse("").split(" ").filter { it.isNotBlank() })
+}
+
+// Thread-scaling and contention check against a sequential baseline, including a virtual thread run on JDK 21+:
+// ./gradlew ratingStressTest -PofflineModel -PstressJavaVersion=21 -PstressArgs="--threads=32 --caches=true"
+tasks.register<JavaExec>("ratingStressTest") {
+    group = "verification"
+    description = "Rates synthetic quotes from 1 to N platform threads and on virtual threads, checking results and contention."
+    classpath = sourceSets["jmh"].runtimeClasspath
+    mainClass.set("com.socotra.deployment.customer.ConcurrencyStressHarness")
+    args(providers.gradleProperty("stressArgs").getOrElse("").split(" ").filter { it.isNotBlank() })
+    providers.gradleProperty("stressJavaVersion").orNull?.let { version ->
+        javaLauncher.set(javaToolchains.launcherFor { languageVersion.set(JavaLanguageVersion.of(version)) })
+    }
+}
+
+// Fails if rate() allocates more than its per-coverage or per-request budget, with the INFO summary on:
+// ./gradlew checkAllocationBudget -PofflineModel [-PallocationArgs="--mix=FULL --coverageBudget=80"]
+val checkAllocationBudget = tasks.register<JavaExec>("checkAllocationBudget") {
+    group = "verification"
+    description = "Measures bytes allocated per rated coverage and per request on the rating path and fails over budget."
+    // slf4j-simple in place of slf4j-nop, writing the summaries to a file so their formatting is counted
+    classpath = sourceSets["jmh"].runtimeClasspath.filter { !it.name.startsWith("slf4j-nop") } + allocationBudgetLogging
+    systemProperty("org.slf4j.simpleLogger.defaultLogLevel", "info")
+    systemProperty("org.slf4j.simpleLogger.logFile", temporaryDir.resolve("rating-summary.log").path)
+    mainClass.set("com.socotra.deployment.customer.AllocationBudgetHarness")
+    args(providers.gradleProperty("allocationArgs").getOrElse("").split(" ").filter { it.isNotBlank() })
+}
+
+// The harness rates synthetic quotes, which needs the stand-in model
+if (offlineModel) {
+    tasks.named("check") {
+        dependsOn(checkAllocationBudget)
+    }
+}
+
+// Compile a rate table for -Dsimpleauto.rating.tableFile:
+// ./gradlew writeRateTableFile -PrateTableSource=rates.properties -PrateTableFile=rates.bin
+tasks.register<JavaExec>("writeRateTableFile") {
+    group = "rating"
+    description = "Compiles a properties-format rate table into the binary RateTableFile format."
+    classpath = sourceSets["jmh"].runtimeClasspath
+    mainClass.set("com.socotra.deployment.customer.RateTableFileTool")
+    args(
+        providers.gradleProperty("rateTableSource").getOrElse("rates.properties"),
+        providers.gradleProperty("rateTableFile").getOrElse("rates.bin")
+    )
+}
+
+// ./gradlew writeVehicleSymbolFile -PvehicleSymbolSource=symbols.csv -PvehicleSymbolFile=symbols.bin
+tasks.register<JavaExec>("writeVehicleSymbolFile") {
+    group = "rating"
+    description = "Compiles a CSV vehicle symbol source into the memory-mapped VehicleSymbolIndex format."
+    classpath = sourceSets["jmh"].runtimeClasspath
+    mainClass.set("com.socotra.deployment.customer.VehicleSymbolFileTool")
+    args(
+        providers.gradleProperty("vehicleSymbolSource").getOrElse("symbols.csv"),
+        providers.gradleProperty("vehicleSymbolFile").getOrElse("symbols.bin")
+    )
+}
+
+// Regenerate VehicleType, RateTableData, CoverageType and VehicleCoverages from the socotra-config options,
+// the Vehicle exposure's coverage definitions and rating/*.properties.
+// The platform deploys plugins/java as source, so the generated files are committed in both copies.
+val generateRatingConstants = tasks.register<JavaExec>("generateRatingConstants") {
+    group = "rating"
+    description = "Generates the plugin's vehicle type and coverage type enums, coverage walker and built-in rate tables from socotra-config and rating/."
+    classpath = sourceSets["codegen"].runtimeClasspath
+    mainClass.set("com.socotra.deployment.customer.RatingConstantsGenerator")
+    args("socotra-config", "rating", "socotra-config/plugins/java", "src/main/java/com/socotra/deployment/customer")
+    inputs.files(
+        "socotra-config/exposures/Vehicle/config.json",
+        "socotra-config/coverageTerms/Limit/config.json",
+        "socotra-config/coverageTerms/Deductible/config.json"
+    )
+    inputs.dir("socotra-config/coverages")
+    inputs.dir("rating")
+    outputs.files(
+        "socotra-config/plugins/java/VehicleType.java",
+        "socotra-config/plugins/java/RateTableData.java",
+        "socotra-config/plugins/java/CoverageType.java",
+        "socotra-config/plugins/java/VehicleCoverages.java",
+        "src/main/java/com/socotra/deployment/customer/VehicleType.java",
+        "src/main/java/com/socotra/deployment/customer/RateTableData.java",
+        "src/main/java/com/socotra/deployment/customer/CoverageType.java",
+        "src/main/java/com/socotra/deployment/customer/VehicleCoverages.java"
+    )
+}
+
+tasks.named("compileJava") {
+    dependsOn(generateRatingConstants)
 }
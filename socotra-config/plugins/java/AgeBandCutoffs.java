@@ -0,0 +1,57 @@
+package com.socotra.deployment.customer;
+
+import java.time.LocalDate;
+
+/**
+ * Driver age band boundaries for one rating date, expressed as birth-date cutoffs.
+ *
+ * A driver is at most a band's max age exactly when they were born after
+ * ratingDate.minusYears(maxAge + 1), which matches Period.between(dateOfBirth, ratingDate).getYears().
+ * Resolving the cutoffs once per request leaves each driver with a few epoch-day comparisons and
+ * no Period or LocalDate allocation. Instances are immutable, so one can be shared across requests that
+ * rate against the same rate tables and rating date.
+ */
+final class AgeBandCutoffs {
+    private final RateTables rateTables;
+    private final LocalDate ratingDate;
+    private final long[] cutoffEpochDays;
+
+    private AgeBandCutoffs(RateTables rateTables, LocalDate ratingDate, long[] cutoffEpochDays) {
+        this.rateTables = rateTables;
+        this.ratingDate = ratingDate;
+        this.cutoffEpochDays = cutoffEpochDays;
+    }
+
+    /**
+     * @param rateTables The rate tables defining the age bands.
+     * @param ratingDate The date ages are calculated as of.
+     * @return The birth-date cutoffs for each age band.
+     */
+    static AgeBandCutoffs of(RateTables rateTables, LocalDate ratingDate) {
+        long[] cutoffEpochDays = new long[rateTables.ageBandCount() - 1];
+        for (int band = 0; band < cutoffEpochDays.length; band++) {
+            cutoffEpochDays[band] = ratingDate.minusYears(rateTables.ageBandMaxAge(band) + 1L).toEpochDay();
+        }
+        return new AgeBandCutoffs(rateTables, ratingDate, cutoffEpochDays);
+    }
+
+    /**
+     * @return true if these cutoffs were resolved for the given rate tables and rating date.
+     */
+    boolean resolves(RateTables rateTables, LocalDate ratingDate) {
+        return this.rateTables == rateTables && this.ratingDate.equals(ratingDate);
+    }
+
+    /**
+     * @param dateOfBirth The driver's date of birth.
+     * @return The index of the driver's age band.
+     */
+    int ageBand(LocalDate dateOfBirth) {
+        long birthEpochDay = dateOfBirth.toEpochDay();
+        int band = 0;
+        while (band < cutoffEpochDays.length && birthEpochDay <= cutoffEpochDays[band]) {
+            band++;
+        }
+        return band;
+    }
+}
@@ -0,0 +1,45 @@
+package com.socotra.deployment.customer;
+
+import java.time.LocalDate;
+
+/**
+ * Remembers the AgeBandCutoffs resolved for each (RateTables, rating date) across requests, so quotes
+ * rated as of the same day, or re-rated back-dated endorsements, skip resolving the cutoffs again.
+ *
+ * The table is direct-mapped: each (rate tables, rating date) pair hashes to one of SLOTS slots, and a
+ * colliding pair simply replaces the entry there. That keeps it bounded without an eviction policy and
+ * lets concurrent rate() calls with different effective dates hold their own slots instead of
+ * overwriting one shared entry. Reads and writes take no lock; entries are immutable and carry their
+ * own key, so a reader sees either a whole matching entry or a miss. Rate tables are compared by
+ * identity, so installing new tables never reuses cutoffs resolved for the old ones.
+ *
+ * Drivers themselves aren't cached: with the cutoffs in hand, banding a driver is a few epoch-day
+ * comparisons with no allocation, cheaper than a per-driver or per-roster lookup would be.
+ */
+final class AgeBandCutoffsCache {
+    // Must be a power of two, see slot
+    static final int SLOTS = 256;
+
+    // Racy by design: entries are immutable, so a reader sees either a whole entry or a miss
+    private final AgeBandCutoffs[] slots = new AgeBandCutoffs[SLOTS];
+
+    /**
+     * @param rateTables The rate tables defining the age bands.
+     * @param ratingDate The date ages are calculated as of.
+     * @return The birth-date cutoffs for the rate tables and rating date.
+     */
+    AgeBandCutoffs get(RateTables rateTables, LocalDate ratingDate) {
+        int slot = slot(rateTables, ratingDate);
+        AgeBandCutoffs cutoffs = slots[slot];
+        if (cutoffs == null || !cutoffs.resolves(rateTables, ratingDate)) {
+            cutoffs = AgeBandCutoffs.of(rateTables, ratingDate);
+            slots[slot] = cutoffs;
+        }
+        return cutoffs;
+    }
+
+    private static int slot(RateTables rateTables, LocalDate ratingDate) {
+        long hash = ((long) System.identityHashCode(rateTables) << 32 ^ ratingDate.hashCode()) * 0x9E3779B97F4A7C15L;
+        return (int) (hash >>> (Long.SIZE - Integer.numberOfTrailingZeros(SLOTS)));
+    }
+}
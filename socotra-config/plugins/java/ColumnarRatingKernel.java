@@ -0,0 +1,106 @@
+package com.socotra.deployment.customer;
+
+import com.socotra.coremodel.ChargeType;
+import com.socotra.coremodel.Deductible;
+import com.socotra.coremodel.Limit;
+import com.socotra.coremodel.RatingItem;
+import com.socotra.platform.tools.ULID;
+
+import java.util.Arrays;
+
+/**
+ * Prices a batch of coverages rated against one PremiumGrid from primitive columns instead of
+ * walking coverage objects one at a time.
+ *
+ * Rows are added during a flattening pass, priced together by PremiumGrid.cells(...) and then
+ * mapped back to RatingItems by row. Each row reads the same grid cell as the scalar
+ * rateCoverage() path, so premiums are identical.
+ */
+final class ColumnarRatingKernel {
+    private final PremiumGrid grid;
+    private ULID[] locators;
+    private int[] coverages;
+    private int[] vehicleTypes;
+    private int[] ageBands;
+    private long[] vehicleFactors;
+    private int[] limits;
+    private int[] deductibles;
+    private int[] cells;
+    private int rows;
+
+    /**
+     * @param grid     The premium grid every row is priced against.
+     * @param capacity The expected number of rows.
+     */
+    ColumnarRatingKernel(PremiumGrid grid, int capacity) {
+        this.grid = grid;
+        int initialCapacity = Math.max(16, capacity);
+        this.locators = new ULID[initialCapacity];
+        this.coverages = new int[initialCapacity];
+        this.vehicleTypes = new int[initialCapacity];
+        this.ageBands = new int[initialCapacity];
+        this.vehicleFactors = new long[initialCapacity];
+        this.limits = new int[initialCapacity];
+        this.deductibles = new int[initialCapacity];
+    }
+
+    /**
+     * @param locator     The coverage's locator.
+     * @param coverage    The coverage being rated.
+     * @param vehicleType The vehicle's type.
+     * @param ageBand     The driver age band applied to the quote.
+     * @param limit         The coverage limit, or null if the coverage has no Limit term.
+     * @param deductible    The coverage deductible, or null if the coverage has no Deductible term.
+     * @param vehicleFactor The vehicle's territory and symbol factor in micro-units.
+     * @return The row's index.
+     */
+    int add(ULID locator, CoverageType coverage, VehicleType vehicleType, int ageBand, Limit limit,
+            Deductible deductible, long vehicleFactor) {
+        if (rows == locators.length) {
+            grow();
+        }
+        locators[rows] = locator;
+        coverages[rows] = coverage.ordinal();
+        vehicleTypes[rows] = vehicleType.ordinal();
+        ageBands[rows] = ageBand;
+        limits[rows] = coverage.usesLimit() ? limit.ordinal() : 0;
+        deductibles[rows] = coverage.usesDeductible() ? deductible.ordinal() : 0;
+        vehicleFactors[rows] = vehicleFactor;
+        return rows++;
+    }
+
+    int rows() {
+        return rows;
+    }
+
+    /**
+     * Prices every row added so far.
+     */
+    void price() {
+        cells = new int[rows];
+        grid.cells(coverages, vehicleTypes, ageBands, limits, deductibles, cells, rows);
+    }
+
+    /**
+     * @param row A row index returned by add(...), after price().
+     * @return The row's RatingItem.
+     */
+    RatingItem ratingItem(int row) {
+        return RatingItem.builder()
+                .elementLocator(locators[row])
+                .chargeType(ChargeType.premium)
+                .rate(grid.premium(cells[row], vehicleFactors[row]))
+                .build();
+    }
+
+    private void grow() {
+        int capacity = locators.length * 2;
+        locators = Arrays.copyOf(locators, capacity);
+        coverages = Arrays.copyOf(coverages, capacity);
+        vehicleTypes = Arrays.copyOf(vehicleTypes, capacity);
+        ageBands = Arrays.copyOf(ageBands, capacity);
+        limits = Arrays.copyOf(limits, capacity);
+        deductibles = Arrays.copyOf(deductibles, capacity);
+        vehicleFactors = Arrays.copyOf(vehicleFactors, capacity);
+    }
+}
@@ -0,0 +1,170 @@
+package com.socotra.deployment.customer;
+
+import com.socotra.coremodel.Address;
+import com.socotra.coremodel.ChargeType;
+import com.socotra.coremodel.Driver;
+import com.socotra.coremodel.RatingItem;
+import com.socotra.coremodel.SimpleAuto;
+import com.socotra.coremodel.Vehicle;
+import com.socotra.coremodel.VehicleData;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Remembers the premiums of recently rated quotes, keyed by only the inputs that affect rating, so a
+ * pricing page that re-sends the same quote is answered without rating or logging it again.
+ *
+ * The key holds the PremiumGrid and rating date, the policy address, the drivers' birth dates (sorted,
+ * since only the highest age band matters) and, per vehicle, its type, VIN, make, model, year, garaging
+ * address and coverage terms (see VehicleCoverages). Locators are left out, so two quotes with the same
+ * inputs share an entry: premiums are cached in coverage order and rebuilt into RatingItems with the
+ * caller's coverage locators.
+ * Entries expire -Dsimpleauto.rating.quoteCacheTtlSeconds after they are rated, and the cache is cleared
+ * whenever rate tables are updated.
+ */
+final class QuoteRatingCache {
+    static final String CAPACITY_PROPERTY = "simpleauto.rating.quoteCacheSize";
+    static final String TTL_PROPERTY = "simpleauto.rating.quoteCacheTtlSeconds";
+    static final int DEFAULT_TTL_SECONDS = 60;
+
+    private final BoundedCache<Key, BigDecimal[]> entries;
+
+    QuoteRatingCache(int capacity, long ttlSeconds) {
+        this.entries = new BoundedCache<>(capacity, 64, TimeUnit.SECONDS.toNanos(ttlSeconds));
+    }
+
+    /**
+     * @return A cache sized by -Dsimpleauto.rating.quoteCacheSize, or null if it is unset or 0.
+     */
+    static QuoteRatingCache create() {
+        int capacity = Integer.getInteger(CAPACITY_PROPERTY, 0);
+        return capacity > 0 ? new QuoteRatingCache(capacity, Integer.getInteger(TTL_PROPERTY, DEFAULT_TTL_SECONDS)) : null;
+    }
+
+    /**
+     * @param policy     The quote being rated.
+     * @param grid       The premium grid the quote is rated against.
+     * @param ratingDate The date driver ages are calculated against.
+     * @return The quote's cache key.
+     */
+    static Key key(SimpleAuto policy, PremiumGrid grid, LocalDate ratingDate) {
+        List<Object> inputs = new ArrayList<>(8 + policy.drivers().size() + policy.vehicles().size() * 12);
+        inputs.add(grid);
+        inputs.add(ratingDate);
+
+        Address policyAddress = policy.data() == null ? null : policy.data().policyAddress();
+        inputs.add(policyAddress == null ? null : policyAddress.zip());
+        inputs.add(policyAddress == null ? null : policyAddress.state());
+
+        LocalDate[] birthDates = new LocalDate[policy.drivers().size()];
+        for (int i = 0; i < birthDates.length; i++) {
+            Driver driver = policy.drivers().get(i);
+            birthDates[i] = driver.data().dateOfBirth();
+        }
+        Arrays.sort(birthDates, Comparator.nullsFirst(Comparator.naturalOrder()));
+        inputs.add(birthDates.length);
+        inputs.addAll(Arrays.asList(birthDates));
+
+        for (Vehicle vehicle : policy.vehicles()) {
+            VehicleData data = vehicle.data();
+            Address garagingAddress = data.garagingAddress();
+            inputs.add(data.vehicleType());
+            inputs.add(data.vin());
+            inputs.add(data.make());
+            inputs.add(data.model());
+            inputs.add(data.year());
+            inputs.add(garagingAddress == null ? null : garagingAddress.zip());
+            inputs.add(garagingAddress == null ? null : garagingAddress.state());
+            inputs.add(VehicleCoverages.count(vehicle));
+            VehicleCoverages.forEach(vehicle, 0, (position, coverageType, locator, limit, deductible) -> {
+                inputs.add(coverageType);
+                inputs.add(limit);
+                inputs.add(deductible);
+            });
+        }
+        return new Key(inputs.toArray());
+    }
+
+    /**
+     * @param key    The quote's cache key.
+     * @param policy The quote being rated, whose coverage locators the RatingItems are built for.
+     * @return The quote's RatingItems, in rateVehicles order, or null if the key isn't cached or has expired.
+     */
+    List<RatingItem> get(Key key, SimpleAuto policy) {
+        BigDecimal[] premiums = entries.get(key);
+        if (premiums == null) {
+            return null;
+        }
+
+        RatingItem[] ratingItems = new RatingItem[premiums.length];
+        int next = 0;
+        for (Vehicle vehicle : policy.vehicles()) {
+            next = VehicleCoverages.forEach(vehicle, next, (position, coverageType, locator, limit, deductible) ->
+                    ratingItems[position] = RatingItem.builder()
+                            .elementLocator(locator)
+                            .chargeType(ChargeType.premium)
+                            .rate(premiums[position])
+                            .build());
+        }
+        return Arrays.asList(ratingItems);
+    }
+
+    /**
+     * @param key         The quote's cache key.
+     * @param ratingItems The quote's RatingItems, in rateVehicles order.
+     */
+    void put(Key key, List<RatingItem> ratingItems) {
+        BigDecimal[] premiums = new BigDecimal[ratingItems.size()];
+        for (int i = 0; i < premiums.length; i++) {
+            premiums[i] = ratingItems.get(i).rate();
+        }
+        entries.put(key, premiums);
+    }
+
+    void clear() {
+        entries.clear();
+    }
+
+    Stats stats() {
+        return new Stats(entries.hits(), entries.misses(), entries.expirations(), entries.size());
+    }
+
+    /**
+     * A quote's rating inputs, compared element by element. The PremiumGrid is compared by identity, so
+     * a rebuilt grid never matches an entry rated against the one it replaced.
+     */
+    static final class Key {
+        private final Object[] inputs;
+        private final int hash;
+
+        private Key(Object[] inputs) {
+            this.inputs = inputs;
+            this.hash = Arrays.hashCode(inputs);
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            return other instanceof Key key && hash == key.hash && Arrays.equals(inputs, key.inputs);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+
+    /**
+     * @param hits        Quotes answered from the cache.
+     * @param misses      Quotes that had to be rated, including expired entries.
+     * @param expirations Entries dropped because they outlived the TTL.
+     * @param size        Entries currently held.
+     */
+    record Stats(long hits, long misses, long expirations, int size) {
+    }
+}
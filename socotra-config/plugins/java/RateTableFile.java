@@ -0,0 +1,197 @@
+package com.socotra.deployment.customer;
+
+import com.socotra.coremodel.Deductible;
+import com.socotra.coremodel.Limit;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.util.zip.CRC32C;
+
+/**
+ * Compact binary encoding of RateTables, read through a memory-mapped FileChannel.
+ *
+ * Layout (big-endian):
+ * <pre>
+ *   header:  int magic "SART" | int formatVersion | int payloadLength | long payloadCrc32c
+ *   payload: short versionLength | versionLength bytes UTF-8 version
+ *            long effective date as epoch day (format version 2+)
+ *            int n | n longs  base rates by VehicleType ordinal (micro-units)
+ *            int n | n longs  limit factors by Limit ordinal
+ *            int n | n longs  deductible factors by Deductible ordinal
+ *            int n | n-1 ints age band max ages | n longs age factors
+ *            int n | n longs  territory factors by territory (format version 3+)
+ *            int n | n longs  vehicle symbol factors by symbol (format version 4+)
+ * </pre>
+ * A file that is truncated, mid-write or corrupt fails its checksum and is rejected whole.
+ * Format version 1 files have no effective date and decode as effective from LocalDate.MIN. Files before
+ * format version 3 have no territory factors, and before 4 no symbol factors; they decode with a single
+ * factor of 1.
+ */
+final class RateTableFile {
+    static final int MAGIC = 0x53415254;
+    static final int FORMAT_VERSION = 4;
+    static final int HEADER_BYTES = 20;
+
+    private RateTableFile() {
+    }
+
+    /**
+     * @param path The rate table file.
+     * @return The decoded and validated RateTables.
+     * @throws RuntimeException if the file can't be read or fails validation.
+     */
+    static RateTables read(Path path) {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            return decode(buffer);
+        } catch (IOException e) {
+            throw new RuntimeException("RateTableFile read failed for " + path, e);
+        }
+    }
+
+    /**
+     * Writes the tables to a temporary file and atomically moves it into place, so readers and
+     * the RateTableWatcher never see a partially written file.
+     *
+     * @param rateTables The tables to write.
+     * @param path       The destination file.
+     */
+    static void write(RateTables rateTables, Path path) throws IOException {
+        Path absolute = path.toAbsolutePath();
+        Path temp = Files.createTempFile(absolute.getParent(), absolute.getFileName().toString(), ".tmp");
+        try {
+            Files.write(temp, encode(rateTables).array());
+            Files.move(temp, absolute, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    static ByteBuffer encode(RateTables rateTables) {
+        byte[] version = rateTables.version().getBytes(StandardCharsets.UTF_8);
+        int vehicleTypes = VehicleType.values().length;
+        int limits = Limit.values().length;
+        int deductibles = Deductible.values().length;
+        int ageBands = rateTables.ageBandCount();
+        int territories = rateTables.territoryCount();
+        int symbols = rateTables.symbolCount();
+
+        int payloadLength = Short.BYTES + version.length + Long.BYTES
+                + Integer.BYTES + vehicleTypes * Long.BYTES
+                + Integer.BYTES + limits * Long.BYTES
+                + Integer.BYTES + deductibles * Long.BYTES
+                + Integer.BYTES + (ageBands - 1) * Integer.BYTES + ageBands * Long.BYTES
+                + Integer.BYTES + territories * Long.BYTES
+                + Integer.BYTES + symbols * Long.BYTES;
+
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_BYTES + payloadLength);
+        buffer.position(HEADER_BYTES);
+        buffer.putShort((short) version.length).put(version);
+        buffer.putLong(rateTables.effectiveDate().toEpochDay());
+
+        buffer.putInt(vehicleTypes);
+        for (VehicleType vehicleType : VehicleType.values()) {
+            buffer.putLong(rateTables.baseRate(vehicleType));
+        }
+        buffer.putInt(limits);
+        for (Limit limit : Limit.values()) {
+            buffer.putLong(rateTables.limitFactor(limit));
+        }
+        buffer.putInt(deductibles);
+        for (Deductible deductible : Deductible.values()) {
+            buffer.putLong(rateTables.deductibleFactor(deductible));
+        }
+        buffer.putInt(ageBands);
+        for (int band = 0; band < ageBands - 1; band++) {
+            buffer.putInt(rateTables.ageBandMaxAge(band));
+        }
+        for (int band = 0; band < ageBands; band++) {
+            buffer.putLong(rateTables.ageFactor(band));
+        }
+        buffer.putInt(territories);
+        for (int territory = 0; territory < territories; territory++) {
+            buffer.putLong(rateTables.territoryFactor(territory));
+        }
+        buffer.putInt(symbols);
+        for (int symbol = 0; symbol < symbols; symbol++) {
+            buffer.putLong(rateTables.symbolFactor(symbol));
+        }
+
+        buffer.putInt(0, MAGIC)
+                .putInt(4, FORMAT_VERSION)
+                .putInt(8, payloadLength)
+                .putLong(12, checksum(buffer, payloadLength));
+        return buffer;
+    }
+
+    static RateTables decode(ByteBuffer buffer) {
+        try {
+            if (buffer.remaining() < HEADER_BYTES || buffer.getInt(0) != MAGIC) {
+                throw new RuntimeException("RateTableFile invalid: not a rate table file");
+            }
+            int formatVersion = buffer.getInt(4);
+            if (formatVersion < 1 || formatVersion > FORMAT_VERSION) {
+                throw new RuntimeException("RateTableFile invalid: unsupported format version " + formatVersion);
+            }
+            int payloadLength = buffer.getInt(8);
+            if (payloadLength != buffer.limit() - HEADER_BYTES) {
+                throw new RuntimeException("RateTableFile invalid: expected " + payloadLength
+                        + " payload bytes, found " + (buffer.limit() - HEADER_BYTES));
+            }
+            if (buffer.getLong(12) != checksum(buffer, payloadLength)) {
+                throw new RuntimeException("RateTableFile invalid: checksum mismatch");
+            }
+
+            ByteBuffer payload = buffer.duplicate().position(HEADER_BYTES);
+            byte[] version = new byte[payload.getShort()];
+            payload.get(version);
+            LocalDate effectiveDate = formatVersion >= 2 ? LocalDate.ofEpochDay(payload.getLong()) : LocalDate.MIN;
+
+            long[] baseRates = readLongs(payload, payload.getInt());
+            long[] limitFactors = readLongs(payload, payload.getInt());
+            long[] deductibleFactors = readLongs(payload, payload.getInt());
+            int ageBands = payload.getInt();
+            int[] ageBandMaxAges = new int[ageBands - 1];
+            for (int band = 0; band < ageBandMaxAges.length; band++) {
+                ageBandMaxAges[band] = payload.getInt();
+            }
+            long[] ageFactors = readLongs(payload, ageBands);
+            long[] territoryFactors = formatVersion >= 3
+                    ? readLongs(payload, payload.getInt())
+                    : new long[]{Premium.MICROS_PER_UNIT};
+            long[] symbolFactors = formatVersion >= 4
+                    ? readLongs(payload, payload.getInt())
+                    : new long[]{Premium.MICROS_PER_UNIT};
+
+            return RateTables.of(new String(version, StandardCharsets.UTF_8), effectiveDate, baseRates, limitFactors,
+                    deductibleFactors, ageBandMaxAges, ageFactors, territoryFactors, symbolFactors);
+        } catch (BufferUnderflowException | IllegalArgumentException | NegativeArraySizeException
+                 | DateTimeException e) {
+            throw new RuntimeException("RateTableFile invalid: malformed payload", e);
+        }
+    }
+
+    private static long[] readLongs(ByteBuffer payload, int count) {
+        long[] values = new long[count];
+        for (int i = 0; i < count; i++) {
+            values[i] = payload.getLong();
+        }
+        return values;
+    }
+
+    private static long checksum(ByteBuffer buffer, int payloadLength) {
+        CRC32C crc = new CRC32C();
+        crc.update(buffer.duplicate().position(HEADER_BYTES).limit(HEADER_BYTES + payloadLength));
+        return crc.getValue();
+    }
+}
@@ -0,0 +1,114 @@
+package com.socotra.deployment.customer;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free, fixed-size histogram of non-negative long values (latencies in nanoseconds, quote sizes).
+ *
+ * Buckets are log-linear in the style of HdrHistogram: values below 64 get a bucket each, and every
+ * power of two above that is split into 32 linear sub-buckets, so any recorded value is reported to
+ * within 1/32 (about 3%) of its true value. Recording is a bucket index computation and one atomic
+ * increment. Counts are kept in per-thread-hashed stripes so parallel vehicle rating threads don't all
+ * increment the same slot.
+ */
+public final class RatingHistogram {
+    private static final int SUB_BUCKET_BITS = 5;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    // Values are clamped to 2^40 - 1, about 18 minutes in nanoseconds
+    private static final int MAX_VALUE_BITS = 40;
+    private static final long MAX_VALUE = (1L << MAX_VALUE_BITS) - 1;
+    private static final int BUCKETS = bucketIndex(MAX_VALUE) + 1;
+
+    private final AtomicLongArray counts;
+    private final int stripeMask;
+    private final LongAdder sum = new LongAdder();
+    private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+    RatingHistogram() {
+        int processors = Runtime.getRuntime().availableProcessors();
+        int stripes = Math.min(8, Integer.highestOneBit(Math.max(1, processors - 1) << 1));
+        this.counts = new AtomicLongArray(stripes * BUCKETS);
+        this.stripeMask = stripes - 1;
+    }
+
+    /**
+     * @param value The value to record. Negative values are recorded as 0.
+     */
+    void record(long value) {
+        long clamped = Math.min(Math.max(value, 0), MAX_VALUE);
+        int stripe = (int) Thread.currentThread().getId() & stripeMask;
+        counts.getAndIncrement(stripe * BUCKETS + bucketIndex(clamped));
+        sum.add(clamped);
+        max.accumulate(clamped);
+    }
+
+    /**
+     * Copies the current counts. Values recorded while the snapshot is taken may or may not be included,
+     * but each recorded value is counted at most once.
+     */
+    public Snapshot snapshot() {
+        long[] buckets = new long[BUCKETS];
+        long count = 0;
+        for (int i = 0; i < counts.length(); i++) {
+            long bucketCount = counts.get(i);
+            buckets[i % BUCKETS] += bucketCount;
+            count += bucketCount;
+        }
+        return new Snapshot(count, sum.sum(), max.get(), buckets);
+    }
+
+    static int bucketIndex(long value) {
+        if (value < 2 * SUB_BUCKETS) {
+            return (int) value;
+        }
+        int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+        return shift * SUB_BUCKETS + (int) (value >>> shift);
+    }
+
+    /**
+     * @return The largest value that is recorded in the given bucket.
+     */
+    static long bucketUpperBound(int index) {
+        if (index < 2 * SUB_BUCKETS) {
+            return index;
+        }
+        int shift = index / SUB_BUCKETS - 1;
+        long mantissa = index % SUB_BUCKETS + SUB_BUCKETS;
+        return ((mantissa + 1) << shift) - 1;
+    }
+
+    /**
+     * Point-in-time copy of a RatingHistogram.
+     *
+     * @param count The number of recorded values.
+     * @param sum   The sum of recorded values.
+     * @param max   The largest recorded value.
+     */
+    public record Snapshot(long count, long sum, long max, long[] buckets) {
+        public double mean() {
+            return count == 0 ? 0 : (double) sum / count;
+        }
+
+        /**
+         * @param percentile The percentile, from 0 to 100.
+         * @return The value at or below which the given percentage of recorded values fall, to within
+         *         the histogram's precision, or 0 if nothing has been recorded.
+         */
+        public long percentile(double percentile) {
+            if (count == 0) {
+                return 0;
+            }
+            long rank = Math.max(1, (long) Math.ceil(count * Math.min(100, Math.max(0, percentile)) / 100));
+            long seen = 0;
+            for (int i = 0; i < buckets.length; i++) {
+                seen += buckets[i];
+                if (seen >= rank) {
+                    return Math.min(bucketUpperBound(i), max);
+                }
+            }
+            return max;
+        }
+    }
+}
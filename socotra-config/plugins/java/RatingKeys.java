@@ -0,0 +1,117 @@
+package com.socotra.deployment.customer;
+
+import com.socotra.coremodel.Deductible;
+import com.socotra.coremodel.Limit;
+import com.socotra.coremodel.Vehicle;
+
+/**
+ * Packs rating inputs into primitive keys, so fingerprints can be compared (and explain traces recorded)
+ * without allocating.
+ */
+final class RatingKeys {
+    // vehicleKey packs one base-COVERAGE_RADIX digit per CoverageType above its low 24 bits:
+    // 0 if the vehicle doesn't carry the coverage, else 1 + (limit + 1) * (deductibles + 1) + (deductible + 1)
+    private static final long COVERAGE_RADIX = (long) (Limit.values().length + 1) * (Deductible.values().length + 1) + 1;
+    private static final long[] COVERAGE_PLACES = coveragePlaces();
+
+    private RatingKeys() {
+    }
+
+    /**
+     * Fingerprints everything that determines a vehicle's premiums within one request: its type, territory
+     * and symbol, and which coverages it carries with which limits and deductibles. Vehicles with equal
+     * keys get identical premiums for every coverage.
+     *
+     * @param vehicleType The vehicle's type.
+     * @param territory   The vehicle's territory.
+     * @param symbol      The vehicle's symbol.
+     * @param vehicle     The vehicle, whose coverages are packed.
+     * @return The packed vehicle key, or -1 if the configured coverages and terms don't fit in a long.
+     */
+    static long vehicleKey(VehicleType vehicleType, int territory, int symbol, Vehicle vehicle) {
+        if (COVERAGE_PLACES == null) {
+            return -1;
+        }
+        long[] coverageDigits = {0};
+        VehicleCoverages.forEach(vehicle, 0, (position, coverageType, locator, limit, deductible) ->
+                coverageDigits[0] += (1 + (limit == null ? 0 : limit.ordinal() + 1) * (Deductible.values().length + 1)
+                        + (deductible == null ? 0 : deductible.ordinal() + 1)) * COVERAGE_PLACES[coverageType.ordinal()]);
+        return coverageDigits[0] << 24 | (long) symbol << 16 | (long) territory << 8 | vehicleType.ordinal();
+    }
+
+    /**
+     * @return COVERAGE_RADIX to the power of each CoverageType ordinal, or null if every digit won't fit
+     *         in the 39 bits above vehicleKey's type, territory and symbol.
+     */
+    private static long[] coveragePlaces() {
+        long[] places = new long[CoverageType.values().length];
+        long place = 1;
+        for (int i = 0; i < places.length; i++) {
+            places[i] = place;
+            if (place > (1L << 39) / COVERAGE_RADIX) {
+                return null;
+            }
+            place *= COVERAGE_RADIX;
+        }
+        return places;
+    }
+
+    /**
+     * Fingerprints everything that determines one coverage's premium within a PremiumGrid.
+     *
+     * @param coverage    The coverage being rated.
+     * @param vehicleType The vehicle's type.
+     * @param ageBand     The driver age band applied to the quote.
+     * @param territory   The vehicle's territory.
+     * @param symbol      The vehicle's symbol.
+     * @param limit       The coverage limit, or null if the coverage has no Limit term.
+     * @param deductible  The coverage deductible, or null if the coverage has no Deductible term.
+     * @return The packed coverage fingerprint.
+     */
+    static long coverageKey(CoverageType coverage, VehicleType vehicleType, int ageBand, int territory, int symbol,
+                            Limit limit, Deductible deductible) {
+        return coverage.ordinal()
+                | (long) vehicleType.ordinal() << 8
+                | (long) ageBand << 16
+                | (long) (limit == null ? 0 : limit.ordinal() + 1) << 24
+                | (long) (deductible == null ? 0 : deductible.ordinal() + 1) << 32
+                | (long) territory << 40
+                | (long) symbol << 48;
+    }
+
+    static CoverageType coverage(long coverageKey) {
+        return CoverageType.values()[(int) (coverageKey & 0xFF)];
+    }
+
+    static VehicleType vehicleType(long coverageKey) {
+        return VehicleType.values()[(int) (coverageKey >>> 8 & 0xFF)];
+    }
+
+    static int ageBand(long coverageKey) {
+        return (int) (coverageKey >>> 16 & 0xFF);
+    }
+
+    static int territory(long coverageKey) {
+        return (int) (coverageKey >>> 40 & 0xFF);
+    }
+
+    static int symbol(long coverageKey) {
+        return (int) (coverageKey >>> 48 & 0xFF);
+    }
+
+    /**
+     * @return The packed Limit, or null if the coverage has no Limit term.
+     */
+    static Limit limit(long coverageKey) {
+        int limit = (int) (coverageKey >>> 24 & 0xFF);
+        return limit == 0 ? null : Limit.values()[limit - 1];
+    }
+
+    /**
+     * @return The packed Deductible, or null if the coverage has no Deductible term.
+     */
+    static Deductible deductible(long coverageKey) {
+        int deductible = (int) (coverageKey >>> 32 & 0xFF);
+        return deductible == 0 ? null : Deductible.values()[deductible - 1];
+    }
+}
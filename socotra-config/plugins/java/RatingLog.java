@@ -0,0 +1,114 @@
+package com.socotra.deployment.customer;
+
+import org.slf4j.Logger;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Logging for the rating path.
+ *
+ * Per-vehicle, per-coverage and per-lookup messages are trace level and wrapped in
+ * {@code if (RatingLog.HOT_PATH_TRACE && logger.isTraceEnabled())}, so javac drops them entirely
+ * unless HOT_PATH_TRACE is switched on for a debugging build. Each rate() call emits one
+ * structured INFO summary line instead.
+ *
+ * By default the summary is formatted on the request thread, and only when INFO is enabled. The total
+ * premium is summed in micro-units while rating, so the summary adds no per-RatingItem work and its
+ * arguments are only boxed once the logger has accepted the line. With
+ * -Dsimpleauto.rating.log.async=true, summaries are queued and formatted on a daemon thread so no
+ * formatting runs on the request thread; if the queue is full the summary is dropped rather than
+ * blocking rating, and counted in RatingMetrics (droppedSummaries, DroppedSummaryCount over JMX).
+ */
+final class RatingLog {
+    /**
+     * Compile-time switch for hot-path trace logging. Leave false in deployed builds.
+     */
+    static final boolean HOT_PATH_TRACE = false;
+
+    static final String ASYNC_PROPERTY = "simpleauto.rating.log.async";
+    private static final int ASYNC_QUEUE_CAPACITY = 8192;
+
+    private final Logger logger;
+    private final RatingMetrics metrics;
+    private final BlockingQueue<RatingSummary> queue;
+
+    /**
+     * @param logger  The logger summaries are written to.
+     * @param metrics The metrics dropped summaries are counted in.
+     * @param async   Whether summaries are formatted on a background thread.
+     */
+    RatingLog(Logger logger, RatingMetrics metrics, boolean async) {
+        this.logger = logger;
+        this.metrics = metrics;
+        if (async) {
+            this.queue = new ArrayBlockingQueue<>(ASYNC_QUEUE_CAPACITY);
+            Thread writer = new Thread(this::drain, "simpleauto-rating-log");
+            writer.setDaemon(true);
+            writer.start();
+        } else {
+            this.queue = null;
+        }
+    }
+
+    /**
+     * @param logger  The logger summaries are written to.
+     * @param metrics The metrics dropped summaries are counted in.
+     * @return A RatingLog configured from the simpleauto.rating.log.async system property.
+     */
+    static RatingLog create(Logger logger, RatingMetrics metrics) {
+        return new RatingLog(logger, metrics, Boolean.getBoolean(ASYNC_PROPERTY));
+    }
+
+    boolean isSummaryEnabled() {
+        return logger.isInfoEnabled();
+    }
+
+    /**
+     * Logs the one-line summary of a rate() call.
+     *
+     * @param quoteLocator The rated quote's locator.
+     * @param vehicles     The number of vehicles on the quote.
+     * @param drivers            The number of drivers on the quote.
+     * @param ratingItems        The number of RatingItems produced.
+     * @param totalPremiumMicros The sum of the RatingItems' premiums in micro-units.
+     * @param elapsedNanos       The time spent in rate().
+     */
+    void summary(Object quoteLocator, int vehicles, int drivers, int ratingItems, long totalPremiumMicros,
+                 long elapsedNanos) {
+        if (queue == null) {
+            write(quoteLocator, vehicles, drivers, ratingItems, totalPremiumMicros, elapsedNanos);
+        } else if (!queue.offer(new RatingSummary(quoteLocator, vehicles, drivers, ratingItems, totalPremiumMicros,
+                elapsedNanos))) {
+            metrics.summaryDropped();
+        }
+    }
+
+    private void drain() {
+        while (true) {
+            try {
+                RatingSummary summary = queue.take();
+                write(summary.quoteLocator, summary.vehicles, summary.drivers, summary.ratingItems,
+                        summary.totalPremiumMicros, summary.elapsedNanos);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                logger.warn("RatingLog failed to write summary", e);
+            }
+        }
+    }
+
+    private void write(Object quoteLocator, int vehicles, int drivers, int ratingItems, long totalPremiumMicros,
+                       long elapsedNanos) {
+        if (logger.isInfoEnabled()) {
+            logger.info("rate quoteLocator={} vehicles={} drivers={} ratingItems={} totalPremium={} elapsedNanos={}",
+                    quoteLocator, vehicles, drivers, ratingItems,
+                    Premium.ofMicros(totalPremiumMicros).toCurrency(PremiumGrid.CURRENCY_SCALE), elapsedNanos);
+        }
+    }
+
+    private record RatingSummary(Object quoteLocator, int vehicles, int drivers, int ratingItems,
+                                 long totalPremiumMicros, long elapsedNanos) {
+    }
+}
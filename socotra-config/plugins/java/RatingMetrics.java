@@ -0,0 +1,182 @@
+package com.socotra.deployment.customer;
+
+import java.lang.management.ManagementFactory;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.slf4j.Logger;
+
+/**
+ * Always-on rating instrumentation: lock-free counters and RatingHistograms of quote, vehicle and
+ * per-coverage latency and of quote size.
+ *
+ * Recording costs a few LongAdder and histogram increments plus the System.nanoTime calls around the
+ * timed section. Read the metrics with {@link #snapshot()} or over JMX. Set
+ * -Dsimpleauto.rating.metrics.jmx=false to skip JMX registration.
+ */
+public final class RatingMetrics implements RatingMetricsMXBean {
+    static final String JMX_PROPERTY = "simpleauto.rating.metrics.jmx";
+    static final String OBJECT_NAME = "com.socotra.deployment.customer:type=SimpleAutoRatingMetrics";
+
+    private final LongAdder quotes = new LongAdder();
+    private final LongAdder vehicles = new LongAdder();
+    private final LongAdder coverages = new LongAdder();
+    private final LongAdder lookupFailures = new LongAdder();
+    private final LongAdder droppedSummaries = new LongAdder();
+    private final RatingHistogram quoteLatency = new RatingHistogram();
+    private final RatingHistogram vehicleRatingLatency = new RatingHistogram();
+    private final RatingHistogram[] coverageLatency = new RatingHistogram[CoverageType.values().length];
+    private final RatingHistogram quoteSize = new RatingHistogram();
+
+    private RatingMetrics() {
+        for (int i = 0; i < coverageLatency.length; i++) {
+            coverageLatency[i] = new RatingHistogram();
+        }
+    }
+
+    /**
+     * Creates a plugin's metrics and registers them with the platform MBeanServer, replacing the
+     * metrics of any earlier plugin instance in this JVM.
+     *
+     * @param logger The plugin's logger, for registration failures.
+     */
+    static RatingMetrics create(Logger logger) {
+        RatingMetrics metrics = new RatingMetrics();
+        if (Boolean.parseBoolean(System.getProperty(JMX_PROPERTY, "true"))) {
+            try {
+                MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+                ObjectName name = new ObjectName(OBJECT_NAME);
+                if (server.isRegistered(name)) {
+                    server.unregisterMBean(name);
+                }
+                server.registerMBean(metrics, name);
+            } catch (JMException | SecurityException e) {
+                logger.warn("Failed to register rating metrics with JMX", e);
+            }
+        }
+        return metrics;
+    }
+
+    /**
+     * @param vehicleCount  The number of vehicles on the quote.
+     * @param coverageCount The number of RatingItems produced.
+     * @param elapsedNanos  The time taken to rate the quote.
+     */
+    void quoteRated(int vehicleCount, int coverageCount, long elapsedNanos) {
+        quotes.increment();
+        vehicles.add(vehicleCount);
+        coverages.add(coverageCount);
+        quoteLatency.record(elapsedNanos);
+        quoteSize.record(vehicleCount);
+    }
+
+    void vehiclesRated(long elapsedNanos) {
+        vehicleRatingLatency.record(elapsedNanos);
+    }
+
+    void coverageRated(CoverageType coverageType, long elapsedNanos) {
+        coverageLatency[coverageType.ordinal()].record(elapsedNanos);
+    }
+
+    void lookupFailed() {
+        lookupFailures.increment();
+    }
+
+    /**
+     * Counts a rate() summary RatingLog dropped because its async queue was full.
+     */
+    void summaryDropped() {
+        droppedSummaries.increment();
+    }
+
+    /**
+     * @return A point-in-time copy of every counter and histogram.
+     */
+    public Snapshot snapshot() {
+        Map<String, RatingHistogram.Snapshot> coverageSnapshots = new LinkedHashMap<>();
+        for (CoverageType coverageType : CoverageType.values()) {
+            coverageSnapshots.put(coverageType.name(), coverageLatency[coverageType.ordinal()].snapshot());
+        }
+        return new Snapshot(quotes.sum(), vehicles.sum(), coverages.sum(), lookupFailures.sum(),
+                droppedSummaries.sum(), quoteLatency.snapshot(), vehicleRatingLatency.snapshot(),
+                Collections.unmodifiableMap(coverageSnapshots), quoteSize.snapshot());
+    }
+
+    @Override
+    public long getQuoteCount() {
+        return quotes.sum();
+    }
+
+    @Override
+    public long getVehicleCount() {
+        return vehicles.sum();
+    }
+
+    @Override
+    public long getCoverageCount() {
+        return coverages.sum();
+    }
+
+    @Override
+    public long getLookupFailureCount() {
+        return lookupFailures.sum();
+    }
+
+    @Override
+    public long getDroppedSummaryCount() {
+        return droppedSummaries.sum();
+    }
+
+    @Override
+    public Map<String, Long> getQuoteLatencyNanos() {
+        return summarize(quoteLatency.snapshot());
+    }
+
+    @Override
+    public Map<String, Long> getVehicleRatingLatencyNanos() {
+        return summarize(vehicleRatingLatency.snapshot());
+    }
+
+    @Override
+    public Map<String, Map<String, Long>> getCoverageLatencyNanos() {
+        Map<String, Map<String, Long>> summaries = new LinkedHashMap<>();
+        for (CoverageType coverageType : CoverageType.values()) {
+            summaries.put(coverageType.name(), summarize(coverageLatency[coverageType.ordinal()].snapshot()));
+        }
+        return summaries;
+    }
+
+    @Override
+    public Map<String, Long> getQuoteSizeVehicles() {
+        return summarize(quoteSize.snapshot());
+    }
+
+    private static Map<String, Long> summarize(RatingHistogram.Snapshot histogram) {
+        Map<String, Long> summary = new LinkedHashMap<>();
+        summary.put("count", histogram.count());
+        summary.put("mean", Math.round(histogram.mean()));
+        summary.put("p50", histogram.percentile(50));
+        summary.put("p90", histogram.percentile(90));
+        summary.put("p99", histogram.percentile(99));
+        summary.put("p999", histogram.percentile(99.9));
+        summary.put("max", histogram.max());
+        return summary;
+    }
+
+    /**
+     * Point-in-time copy of a plugin's RatingMetrics. Latencies are in nanoseconds, coverage latencies
+     * are keyed by CoverageType name and quote size is in vehicles. droppedSummaries counts rate()
+     * summaries the async RatingLog dropped because its queue was full.
+     */
+    public record Snapshot(long quotes, long vehicles, long coverages, long lookupFailures, long droppedSummaries,
+                           RatingHistogram.Snapshot quoteLatency,
+                           RatingHistogram.Snapshot vehicleRatingLatency,
+                           Map<String, RatingHistogram.Snapshot> coverageLatency,
+                           RatingHistogram.Snapshot quoteSize) {
+    }
+}
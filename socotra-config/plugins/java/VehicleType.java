@@ -0,0 +1,31 @@
+// Generated by ./gradlew generateRatingConstants from socotra-config and rating/*.properties.
+// Do not edit: change the sources and re-run the task.
+package com.socotra.deployment.customer;
+
+/**
+ * Vehicle types offered on the Vehicle exposure, in the order listed in
+ * socotra-config/exposures/Vehicle/config.json. Ordinals index the base rate table.
+ */
+enum VehicleType {
+    Car,
+    Truck,
+    Motorcycle;
+
+    /**
+     * Resolves the vehicleType option string from Vehicle data.
+     *
+     * @param value The vehicleType value, e.g. "Car".
+     * @return The matching VehicleType, or null if the value isn't a configured option.
+     */
+    static VehicleType fromValue(String value) {
+        if (value == null) {
+            return null;
+        }
+        return switch (value) {
+            case "Car" -> Car;
+            case "Truck" -> Truck;
+            case "Motorcycle" -> Motorcycle;
+            default -> null;
+        };
+    }
+}
@@ -0,0 +1,522 @@
+package com.socotra.deployment.customer;
+
+import groovy.json.JsonSlurper;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Properties;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.stream.Stream;
+
+/**
+ * Generates VehicleType and RateTableData from the socotra-config options and the rating/*.properties
+ * factor sources, so the plugin starts with its built-in tables already in primitive form.
+ *
+ * Also generates CoverageType and VehicleCoverages from the Vehicle exposure's contents and each
+ * socotra-config/coverages/* definition: a coverage's formula is BaseRate * DriverAgeFactor * VehicleFactor
+ * times a factor for each Limit or Deductible coverageTerm it declares. PremiumGrid evaluates every formula
+ * once per rate table into its flat premium array, and VehicleCoverages walks a vehicle's coverages as
+ * straight-line accessor calls, so adding a coverage to socotra-config needs no hand-written Java.
+ *
+ * Every factor is emitted as a case of a switch expression over VehicleType, Limit or Deductible with no
+ * default branch, so a coverageTerm option added to socotra-config without a factor fails the build here,
+ * and a generated coremodel enum that drifts from the generated tables fails compileJava.
+ *
+ * Run with: ./gradlew generateRatingConstants (compileJava runs it first)
+ */
+public final class RatingConstantsGenerator {
+    private static final String HEADER = "// Generated by ./gradlew generateRatingConstants from socotra-config and rating/*.properties.\n"
+            + "// Do not edit: change the sources and re-run the task.\n";
+    private static final int MICRO_SCALE = 6;
+
+    private RatingConstantsGenerator() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 3) {
+            System.err.println("usage: RatingConstantsGenerator <socotra-config dir> <rating dir> <output dir>...");
+            System.exit(2);
+        }
+        Path config = Path.of(args[0]);
+        List<String> vehicleTypes = vehicleTypes(config.resolve("exposures/Vehicle/config.json"));
+        List<String> limits = coverageTermOptions(config.resolve("coverageTerms/Limit/config.json"));
+        List<String> deductibles = coverageTermOptions(config.resolve("coverageTerms/Deductible/config.json"));
+        List<Coverage> coverages = coverages(config);
+        List<Version> versions = versions(Path.of(args[1]), vehicleTypes, limits, deductibles);
+
+        String vehicleType = vehicleType(vehicleTypes);
+        String coverageType = coverageType(coverages);
+        String vehicleCoverages = vehicleCoverages(coverages);
+        String rateTableData = rateTableData(versions, vehicleTypes, limits, deductibles);
+        for (int i = 2; i < args.length; i++) {
+            Path output = Path.of(args[i]);
+            Files.createDirectories(output);
+            writeIfChanged(output.resolve("VehicleType.java"), vehicleType);
+            writeIfChanged(output.resolve("CoverageType.java"), coverageType);
+            writeIfChanged(output.resolve("VehicleCoverages.java"), vehicleCoverages);
+            writeIfChanged(output.resolve("RateTableData.java"), rateTableData);
+        }
+        System.out.printf("generated %d vehicle types, %d coverages, %d limits, %d deductibles and %d rate table versions%n",
+                vehicleTypes.size(), coverages.size(), limits.size(), deductibles.size(), versions.size());
+    }
+
+    /**
+     * @return The Vehicle exposure's coverages in contents order, with the coverageTerms each one declares
+     *         or inherits.
+     */
+    @SuppressWarnings("unchecked")
+    private static List<Coverage> coverages(Path config) throws IOException {
+        Path vehicle = config.resolve("exposures/Vehicle/config.json");
+        List<Coverage> coverages = new ArrayList<>();
+        for (String content : (List<String>) json(vehicle).get("contents")) {
+            boolean optional = content.endsWith("?");
+            String name = optional ? content.substring(0, content.length() - 1) : content;
+            Set<String> terms = new TreeSet<>();
+            coverageTerms(config, name, terms);
+            for (String term : terms) {
+                if (!term.equals("Limit") && !term.equals("Deductible")) {
+                    throw new IllegalStateException("coverages/" + name + ": coverageTerm " + term
+                            + " has no factor table in RateTables");
+                }
+            }
+            coverages.add(new Coverage(name, optional, terms.contains("Limit"), terms.contains("Deductible")));
+        }
+        requireIdentifiers(vehicle, coverages.stream().map(Coverage::name).toList());
+        return coverages;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static void coverageTerms(Path config, String coverage, Set<String> terms) throws IOException {
+        Map<String, Object> definition = json(config.resolve("coverages").resolve(coverage).resolve("config.json"));
+        List<String> declared = (List<String>) definition.get("coverageTerms");
+        if (declared != null) {
+            for (String term : declared) {
+                terms.add(term.endsWith("?") ? term.substring(0, term.length() - 1) : term);
+            }
+        }
+        String parent = (String) definition.get("extend");
+        if (parent != null) {
+            coverageTerms(config, parent, terms);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<String> vehicleTypes(Path path) throws IOException {
+        Map<String, Object> data = (Map<String, Object>) json(path).get("data");
+        Map<String, Object> vehicleType = (Map<String, Object>) data.get("vehicleType");
+        List<String> options = new ArrayList<>((List<String>) vehicleType.get("options"));
+        requireIdentifiers(path, options);
+        return options;
+    }
+
+    /**
+     * @return The coverageTerm's option names in config order, without the * default marker.
+     */
+    @SuppressWarnings("unchecked")
+    private static List<String> coverageTermOptions(Path path) throws IOException {
+        Map<String, Object> options = (Map<String, Object>) json(path).get("options");
+        List<String> names = new ArrayList<>();
+        for (String option : options.keySet()) {
+            names.add(option.startsWith("*") ? option.substring(1) : option);
+        }
+        requireIdentifiers(path, names);
+        return names;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> json(Path path) throws IOException {
+        try (Reader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            return (Map<String, Object>) new JsonSlurper().parse(reader);
+        }
+    }
+
+    private static void requireIdentifiers(Path path, List<String> options) {
+        if (options.isEmpty()) {
+            throw new IllegalStateException(path + ": no options");
+        }
+        for (String option : options) {
+            if (!option.matches("[A-Za-z_][A-Za-z0-9_]*")) {
+                throw new IllegalStateException(path + ": option " + option + " is not a Java identifier");
+            }
+        }
+    }
+
+    private static List<Version> versions(Path ratingDir, List<String> vehicleTypes, List<String> limits,
+                                          List<String> deductibles) throws IOException {
+        List<Path> sources;
+        try (Stream<Path> files = Files.list(ratingDir)) {
+            sources = files.filter(file -> file.toString().endsWith(".properties")).sorted().toList();
+        }
+        if (sources.isEmpty()) {
+            throw new IllegalStateException(ratingDir + ": no rate table .properties files");
+        }
+
+        List<Version> versions = new ArrayList<>();
+        for (Path source : sources) {
+            Properties properties = new Properties();
+            try (Reader reader = Files.newBufferedReader(source, StandardCharsets.ISO_8859_1)) {
+                properties.load(reader);
+            }
+            versions.add(Version.parse(source, properties, vehicleTypes, limits, deductibles));
+        }
+        versions.sort(Comparator.comparing(Version::effectiveDate, Comparator.nullsFirst(Comparator.naturalOrder())));
+        for (int i = 1; i < versions.size(); i++) {
+            if (Objects.equals(versions.get(i).effectiveDate(), versions.get(i - 1).effectiveDate())) {
+                throw new IllegalStateException(versions.get(i).source() + ": same effectiveDate as "
+                        + versions.get(i - 1).source());
+            }
+        }
+        return versions;
+    }
+
+    private static String vehicleType(List<String> vehicleTypes) {
+        StringBuilder java = new StringBuilder(HEADER)
+                .append("package com.socotra.deployment.customer;\n\n")
+                .append("/**\n")
+                .append(" * Vehicle types offered on the Vehicle exposure, in the order listed in\n")
+                .append(" * socotra-config/exposures/Vehicle/config.json. Ordinals index the base rate table.\n")
+                .append(" */\n")
+                .append("enum VehicleType {\n");
+        for (int i = 0; i < vehicleTypes.size(); i++) {
+            java.append("    ").append(vehicleTypes.get(i)).append(i < vehicleTypes.size() - 1 ? ",\n" : ";\n");
+        }
+        java.append("\n")
+                .append("    /**\n")
+                .append("     * Resolves the vehicleType option string from Vehicle data.\n")
+                .append("     *\n")
+                .append("     * @param value The vehicleType value, e.g. \"").append(vehicleTypes.get(0)).append("\".\n")
+                .append("     * @return The matching VehicleType, or null if the value isn't a configured option.\n")
+                .append("     */\n")
+                .append("    static VehicleType fromValue(String value) {\n")
+                .append("        if (value == null) {\n")
+                .append("            return null;\n")
+                .append("        }\n")
+                .append("        return switch (value) {\n");
+        for (String vehicleType : vehicleTypes) {
+            java.append("            case \"").append(vehicleType).append("\" -> ").append(vehicleType).append(";\n");
+        }
+        return java.append("            default -> null;\n")
+                .append("        };\n")
+                .append("    }\n")
+                .append("}\n")
+                .toString();
+    }
+
+    private static String coverageType(List<Coverage> coverages) {
+        StringBuilder java = new StringBuilder(HEADER)
+                .append("package com.socotra.deployment.customer;\n\n")
+                .append("/**\n")
+                .append(" * Coverages available on a Vehicle, in socotra-config/exposures/Vehicle contents order, and which\n")
+                .append(" * coverageTerms factor into each one's premium (see socotra-config/coverages/*).\n")
+                .append(" */\n")
+                .append("enum CoverageType {\n");
+        for (int i = 0; i < coverages.size(); i++) {
+            Coverage coverage = coverages.get(i);
+            java.append("    ").append(coverage.name()).append('(').append(coverage.usesLimit()).append(", ")
+                    .append(coverage.usesDeductible()).append(')').append(i < coverages.size() - 1 ? ",\n" : ";\n");
+        }
+        return java.append("""
+
+                    private final boolean usesLimit;
+                    private final boolean usesDeductible;
+
+                    CoverageType(boolean usesLimit, boolean usesDeductible) {
+                        this.usesLimit = usesLimit;
+                        this.usesDeductible = usesDeductible;
+                    }
+
+                    boolean usesLimit() {
+                        return usesLimit;
+                    }
+
+                    boolean usesDeductible() {
+                        return usesDeductible;
+                    }
+                }
+                """).toString();
+    }
+
+    private static String vehicleCoverages(List<Coverage> coverages) {
+        StringBuilder java = new StringBuilder(HEADER)
+                .append("package com.socotra.deployment.customer;\n\n")
+                .append("import com.socotra.coremodel.Deductible;\n")
+                .append("import com.socotra.coremodel.Limit;\n")
+                .append("import com.socotra.coremodel.Vehicle;\n")
+                .append("import com.socotra.platform.tools.ULID;\n\n")
+                .append("""
+                        /**
+                         * Walks a Vehicle's coverages in CoverageType order, passing each one's rating terms to a Visitor.
+                         * Every rating path (single quote, columnar batch, quote cache) uses this walk, so they all agree
+                         * on which coverages a vehicle has and in what order its RatingItems appear.
+                         */
+                        final class VehicleCoverages {
+
+                            private VehicleCoverages() {
+                            }
+
+                            interface Visitor {
+                                /**
+                                 * @param position     The coverage's position, counting on from forEach's start position.
+                                 * @param coverageType The coverage.
+                                 * @param locator      The coverage's locator.
+                                 * @param limit        The coverage limit, or null if the coverage has no Limit term.
+                                 * @param deductible   The coverage deductible, or null if the coverage has no Deductible term.
+                                 */
+                                void coverage(int position, CoverageType coverageType, ULID locator, Limit limit,
+                                              Deductible deductible);
+                            }
+
+                            /**
+                             * @return The number of coverages on the vehicle.
+                             */
+                            static int count(Vehicle vehicle) {
+                        """);
+        long required = coverages.stream().filter(coverage -> !coverage.optional()).count();
+        java.append("        int count = ").append(required).append(";\n");
+        for (Coverage coverage : coverages) {
+            if (coverage.optional()) {
+                java.append("        if (vehicle.").append(coverage.accessor()).append("() != null) {\n")
+                        .append("            count++;\n")
+                        .append("        }\n");
+            }
+        }
+        java.append("""
+                        return count;
+                    }
+
+                    /**
+                     * @param vehicle  The vehicle whose coverages are visited.
+                     * @param position The first coverage's position.
+                     * @param visitor  Receives each coverage.
+                     * @return The position after the vehicle's last coverage.
+                     */
+                    static int forEach(Vehicle vehicle, int position, Visitor visitor) {
+                """);
+        for (Coverage coverage : coverages) {
+            String get = "vehicle." + coverage.accessor() + "()";
+            String indent = coverage.optional() ? "            " : "        ";
+            if (coverage.optional()) {
+                java.append("        if (").append(get).append(" != null) {\n");
+            }
+            java.append(indent).append("visitor.coverage(position++, CoverageType.").append(coverage.name())
+                    .append(", ").append(get).append(".locator(),\n")
+                    .append(indent).append("        ")
+                    .append(coverage.usesLimit() ? get + ".limit()" : "null").append(", ")
+                    .append(coverage.usesDeductible() ? get + ".deductible()" : "null").append(");\n");
+            if (coverage.optional()) {
+                java.append("        }\n");
+            }
+        }
+        return java.append("        return position;\n")
+                .append("    }\n")
+                .append("}\n")
+                .toString();
+    }
+
+    private static String rateTableData(List<Version> versions, List<String> vehicleTypes, List<String> limits,
+                                        List<String> deductibles) {
+        StringBuilder java = new StringBuilder(HEADER)
+                .append("package com.socotra.deployment.customer;\n\n")
+                .append("import com.socotra.coremodel.Deductible;\n")
+                .append("import com.socotra.coremodel.Limit;\n\n")
+                .append("import java.time.LocalDate;\n")
+                .append("import java.util.List;\n\n")
+                .append("/**\n")
+                .append(" * Built-in rate table versions, compiled from rating/*.properties so the plugin builds them\n")
+                .append(" * from primitive literals at init instead of parsing text. Factors are in micro-units.\n")
+                .append(" *\n")
+                .append(" * The switches have no default branch, so the build fails if the Limit or Deductible options\n")
+                .append(" * generated from socotra-config/coverageTerms stop matching the factors here.\n")
+                .append(" */\n")
+                .append("final class RateTableData {\n\n")
+                .append("    /**\n")
+                .append("     * Every built-in version, in effectiveDate order.\n")
+                .append("     */\n")
+                .append("    static final List<RateTables> VERSIONS = List.of(");
+        for (int i = 0; i < versions.size(); i++) {
+            java.append(i > 0 ? ", " : "").append(versions.get(i).methodName()).append("()");
+        }
+        java.append(");\n\n")
+                .append("    static final RateTables CURRENT = VERSIONS.get(VERSIONS.size() - 1);\n\n")
+                .append("    private RateTableData() {\n")
+                .append("    }\n");
+
+        for (Version version : versions) {
+            java.append("\n    // ").append(version.source().getFileName()).append("\n")
+                    .append("    private static RateTables ").append(version.methodName()).append("() {\n");
+            appendSwitchTable(java, "baseRates", "VehicleType", "vehicleType", vehicleTypes, version.baseRates());
+            appendSwitchTable(java, "limitFactors", "Limit", "limit", limits, version.limitFactors());
+            appendSwitchTable(java, "deductibleFactors", "Deductible", "deductible", deductibles,
+                    version.deductibleFactors());
+            java.append("        return RateTables.of(\"").append(version.version()).append("\", ")
+                    .append(version.effectiveDate() == null ? "LocalDate.MIN" : "LocalDate.of("
+                            + version.effectiveDate().getYear() + ", " + version.effectiveDate().getMonthValue()
+                            + ", " + version.effectiveDate().getDayOfMonth() + ")")
+                    .append(", baseRates, limitFactors, deductibleFactors,\n")
+                    .append("                new int[]{").append(join(version.ageBandMaxAges())).append("},\n")
+                    .append("                new long[]{").append(join(version.ageFactors())).append("},\n")
+                    .append("                new long[]{").append(join(version.territoryFactors())).append("},\n")
+                    .append("                new long[]{").append(join(version.symbolFactors())).append("});\n")
+                    .append("    }\n");
+        }
+        return java.append("}\n").toString();
+    }
+
+    private static void appendSwitchTable(StringBuilder java, String array, String type, String variable,
+                                          List<String> options, long[] values) {
+        java.append("        long[] ").append(array).append(" = new long[").append(type).append(".values().length];\n")
+                .append("        for (").append(type).append(' ').append(variable).append(" : ").append(type)
+                .append(".values()) {\n")
+                .append("            ").append(array).append('[').append(variable).append(".ordinal()] = switch (")
+                .append(variable).append(") {\n");
+        for (int i = 0; i < options.size(); i++) {
+            java.append("                case ").append(options.get(i)).append(" -> ").append(literal(values[i]))
+                    .append(";\n");
+        }
+        java.append("            };\n")
+                .append("        }\n");
+    }
+
+    private static String join(int[] values) {
+        StringBuilder joined = new StringBuilder();
+        for (int i = 0; i < values.length; i++) {
+            joined.append(i > 0 ? ", " : "").append(values[i]);
+        }
+        return joined.toString();
+    }
+
+    private static String join(long[] values) {
+        StringBuilder joined = new StringBuilder();
+        for (int i = 0; i < values.length; i++) {
+            joined.append(i > 0 ? ", " : "").append(literal(values[i]));
+        }
+        return joined.toString();
+    }
+
+    /**
+     * @return The value as a Java long literal with _ thousands separators, e.g. 1_750_000L.
+     */
+    private static String literal(long value) {
+        String digits = Long.toString(Math.abs(value));
+        StringBuilder literal = new StringBuilder();
+        for (int i = 0; i < digits.length(); i++) {
+            if (i > 0 && (digits.length() - i) % 3 == 0) {
+                literal.append('_');
+            }
+            literal.append(digits.charAt(i));
+        }
+        return (value < 0 ? "-" : "") + literal + "L";
+    }
+
+    private static void writeIfChanged(Path path, String content) throws IOException {
+        if (Files.exists(path) && Files.readString(path).equals(content)) {
+            return;
+        }
+        Files.writeString(path, content);
+    }
+
+    /**
+     * A Vehicle coverage and the coverageTerms that factor into its premium.
+     */
+    private record Coverage(String name, boolean optional, boolean usesLimit, boolean usesDeductible) {
+        String accessor() {
+            return Character.toLowerCase(name.charAt(0)) + name.substring(1);
+        }
+    }
+
+    /**
+     * One rating/*.properties source, with factors in micro-units in socotra-config option order.
+     */
+    private record Version(Path source, String version, LocalDate effectiveDate, long[] baseRates,
+                           long[] limitFactors, long[] deductibleFactors, int[] ageBandMaxAges, long[] ageFactors,
+                           long[] territoryFactors, long[] symbolFactors) {
+
+        static Version parse(Path source, Properties properties, List<String> vehicleTypes, List<String> limits,
+                             List<String> deductibles) {
+            Set<String> unused = new TreeSet<>(properties.stringPropertyNames());
+            String version = require(source, properties, unused, "version");
+            String effectiveDate = properties.getProperty("effectiveDate");
+            unused.remove("effectiveDate");
+
+            long[] baseRates = factors(source, properties, unused, "baseRate.", vehicleTypes);
+            long[] limitFactors = factors(source, properties, unused, "limit.", limits);
+            long[] deductibleFactors = factors(source, properties, unused, "deductible.", deductibles);
+
+            String[] maxAges = require(source, properties, unused, "ageBand.maxAge").split(",");
+            int[] ageBandMaxAges = new int[maxAges.length];
+            for (int i = 0; i < maxAges.length; i++) {
+                ageBandMaxAges[i] = Integer.parseInt(maxAges[i].trim());
+                if (i > 0 && ageBandMaxAges[i] <= ageBandMaxAges[i - 1]) {
+                    throw new IllegalStateException(source + ": ageBand.maxAge must be ascending");
+                }
+            }
+            long[] ageFactors = micros(source, require(source, properties, unused, "ageBand.factor"));
+            if (ageFactors.length != ageBandMaxAges.length + 1) {
+                throw new IllegalStateException(source + ": expected " + (ageBandMaxAges.length + 1)
+                        + " ageBand.factor values, found " + ageFactors.length);
+            }
+
+            String territoryFactors = properties.getProperty("territory.factor", "1.00");
+            String symbolFactors = properties.getProperty("symbol.factor", "1.00");
+            unused.remove("territory.factor");
+            unused.remove("symbol.factor");
+            if (!unused.isEmpty()) {
+                throw new IllegalStateException(source + ": unknown keys " + unused
+                        + " (is an option missing from socotra-config?)");
+            }
+
+            return new Version(source, version,
+                    effectiveDate == null || effectiveDate.isBlank() ? null : LocalDate.parse(effectiveDate.trim()),
+                    baseRates, limitFactors, deductibleFactors, ageBandMaxAges, ageFactors,
+                    micros(source, territoryFactors), micros(source, symbolFactors));
+        }
+
+        String methodName() {
+            return "v" + version.replaceAll("[^A-Za-z0-9]", "_");
+        }
+
+        private static String require(Path source, Properties properties, Set<String> unused, String key) {
+            String value = properties.getProperty(key);
+            if (value == null || value.isBlank()) {
+                throw new IllegalStateException(source + ": missing " + key);
+            }
+            unused.remove(key);
+            return value.trim();
+        }
+
+        private static long[] factors(Path source, Properties properties, Set<String> unused, String prefix,
+                                      List<String> options) {
+            long[] factors = new long[options.size()];
+            for (int i = 0; i < factors.length; i++) {
+                factors[i] = micros(source, require(source, properties, unused, prefix + options.get(i)))[0];
+            }
+            return factors;
+        }
+
+        private static long[] micros(Path source, String values) {
+            String[] split = values.trim().split(",");
+            long[] micros = new long[split.length];
+            for (int i = 0; i < split.length; i++) {
+                try {
+                    micros[i] = new BigDecimal(split[i].trim()).setScale(MICRO_SCALE, RoundingMode.UNNECESSARY)
+                            .unscaledValue().longValueExact();
+                } catch (ArithmeticException | NumberFormatException e) {
+                    throw new IllegalStateException(source + ": invalid factor " + split[i].trim(), e);
+                }
+            }
+            return micros;
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package com.socotra.deployment.customer;
+
+import com.socotra.coremodel.RatingSet;
+import com.socotra.coremodel.SimpleAutoQuoteRequest;
+import org.slf4j.LoggerFactory;
+
+import java.lang.management.ManagementFactory;
+
+/**
+ * Allocation budget check for the rating hot path: rates synthetic quotes on one thread, measures what
+ * rate() allocates with com.sun.management.ThreadMXBean#getThreadAllocatedBytes, and fails if either
+ * budget is exceeded:
+ * <ul>
+ *   <li>per coverage: the bytes each extra rated coverage adds, taken from the difference between a
+ *       one-vehicle quote and a --vehicles quote of the same mix. This is the RatingItem and its share of
+ *       the result arrays and per-vehicle context, so any per-coverage or per-vehicle allocation sneaking
+ *       back into the path pushes it over, however few coverages the quote has;</li>
+ *   <li>per request: the fixed bytes every rate() call costs on top of that, including the INFO summary
+ *       line. Splitting it out keeps a small quote's fixed cost from being charged to its coverages.</li>
+ * </ul>
+ * The summary logger has to be enabled, otherwise its formatting wouldn't be counted; the harness fails
+ * if the plugin's logger doesn't accept INFO. checkAllocationBudget runs it with slf4j-simple writing to
+ * a file under build/tmp.
+ *
+ * The default budgets are set from the worst case, escape analysis off (-XX:-DoEscapeAnalysis), so they
+ * hold however the JIT compiles the path. With escape analysis on, C2 usually scalar-replaces each
+ * coverage's RatingItem.Builder, but not always once both quote shapes have been compiled. Two runs per
+ * mix on JDK 17 and 21 with slf4j-simple, 1 vs 10 vehicles and 3 drivers, measured:
+ * <pre>
+ *   mix       per coverage, EA off (EA on)   per request, EA off (EA on)
+ *   REQUIRED  74.0-77.4 (51.8-78.8)           2453-2456 (2078-2130)
+ *   MIXED     71.4-73.5 (47.4-73.5)           2387-2498 (1997-2173)
+ *   FULL      71.2-72.0 (47.6-72.0)           2376-2417 (1928-2106)
+ * </pre>
+ * The per-coverage budget of 88 leaves about 9 bytes over the worst run, so a new per-coverage object
+ * (16 bytes or more) fails it. The per-request budget of 2688 leaves about 190 bytes over the worst run;
+ * about 1.7 KB of each request is slf4j-simple formatting the summary line.
+ *
+ * Run with: ./gradlew checkAllocationBudget -PofflineModel [-PallocationArgs="--mix=FULL --coverageBudget=80"]
+ *
+ * Options (defaults in parentheses): --coverageBudget (88 bytes per coverage), --requestBudget (2688 bytes
+ * per request), --requests (20000), --warmup (50000), --vehicles (10), --drivers (3), --mix (MIXED).
+ */
+public final class AllocationBudgetHarness {
+
+    private AllocationBudgetHarness() {
+    }
+
+    public static void main(String[] args) {
+        int coverageBudget = RatingLoadHarness.intOption(args, "coverageBudget", 88);
+        int requestBudget = RatingLoadHarness.intOption(args, "requestBudget", 2688);
+        int requests = RatingLoadHarness.intOption(args, "requests", 20_000);
+        int warmup = RatingLoadHarness.intOption(args, "warmup", 50_000);
+        int vehicles = RatingLoadHarness.intOption(args, "vehicles", 10);
+        int drivers = RatingLoadHarness.intOption(args, "drivers", 3);
+        SyntheticQuotes.CoverageMix mix =
+                SyntheticQuotes.CoverageMix.valueOf(RatingLoadHarness.option(args, "mix", "MIXED"));
+
+        if (!LoggerFactory.getLogger(SimpleAutoRatingPlugin.class).isInfoEnabled()) {
+            System.err.println("The rate() summary logger doesn't accept INFO, so its allocations wouldn't be "
+                    + "counted. Run with an SLF4J provider that enables INFO, e.g. slf4j-simple.");
+            System.exit(1);
+        }
+
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        if (!threads.isThreadAllocatedMemorySupported()) {
+            throw new IllegalStateException("This JVM doesn't support per-thread allocation counters");
+        }
+        threads.setThreadAllocatedMemoryEnabled(true);
+
+        SimpleAutoRatingPlugin plugin = new SimpleAutoRatingPlugin();
+        SimpleAutoQuoteRequest small = SyntheticQuotes.request(1, drivers, mix);
+        SimpleAutoQuoteRequest large = SyntheticQuotes.request(vehicles, drivers, mix);
+        int smallCoverages = rate(plugin, small, warmup);
+        int largeCoverages = rate(plugin, large, warmup);
+        if (largeCoverages <= smallCoverages) {
+            throw new IllegalArgumentException("--vehicles must give the quote more coverages than one vehicle has");
+        }
+
+        double smallBytes = bytesPerRequest(threads, plugin, small, requests);
+        double largeBytes = bytesPerRequest(threads, plugin, large, requests);
+        double perCoverage = (largeBytes - smallBytes) / (largeCoverages - smallCoverages);
+        double perRequest = smallBytes - perCoverage * smallCoverages;
+
+        System.out.printf("allocation: vehicles=1/%d drivers=%d mix=%s coverages=%d/%d bytes/quote=%.0f/%.0f "
+                        + "per-coverage=%.1f (budget %d) per-request=%.0f (budget %d)%n",
+                vehicles, drivers, mix, smallCoverages, largeCoverages, smallBytes, largeBytes,
+                perCoverage, coverageBudget, perRequest, requestBudget);
+        boolean over = false;
+        if (perCoverage > coverageBudget) {
+            System.err.printf("rate() allocated %.1f bytes per coverage, over the budget of %d%n",
+                    perCoverage, coverageBudget);
+            over = true;
+        }
+        if (perRequest > requestBudget) {
+            System.err.printf("rate() allocated %.0f bytes per request, over the budget of %d%n",
+                    perRequest, requestBudget);
+            over = true;
+        }
+        if (over) {
+            System.exit(1);
+        }
+    }
+
+    private static double bytesPerRequest(com.sun.management.ThreadMXBean threads, SimpleAutoRatingPlugin plugin,
+                                          SimpleAutoQuoteRequest request, int requests) {
+        long thread = Thread.currentThread().getId();
+        long before = threads.getThreadAllocatedBytes(thread);
+        rate(plugin, request, requests);
+        return (double) (threads.getThreadAllocatedBytes(thread) - before) / requests;
+    }
+
+    /**
+     * @return The number of RatingItems in each RatingSet.
+     */
+    private static int rate(SimpleAutoRatingPlugin plugin, SimpleAutoQuoteRequest request, int requests) {
+        int coverages = 0;
+        for (int i = 0; i < requests; i++) {
+            RatingSet ratingSet = plugin.rate(request);
+            if (!ratingSet.ok()) {
+                throw new IllegalStateException("rate() returned a failed RatingSet");
+            }
+            coverages = ratingSet.ratingItems().size();
+        }
+        return coverages;
+    }
+}
@@ -0,0 +1,386 @@
+package com.socotra.deployment.customer;
+
+import com.socotra.coremodel.RatingSet;
+import com.socotra.coremodel.SimpleAutoQuoteRequest;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadInfo;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Concurrency stress harness: rates a set of distinct synthetic quotes on one shared plugin instance
+ * from 1 to N platform threads, then from one virtual thread per call, and checks every RatingSet
+ * against a sequential baseline rated by a separate plugin.
+ *
+ * For each platform thread count it reports throughput, speedup over one thread and scaling efficiency,
+ * and samples the worker threads for monitors they are BLOCKED on, so contention on a synchronized
+ * logging appender, a BoundedCache stripe or a rate table swap shows up by lock class. Steps whose
+ * efficiency falls below --minEfficiency are flagged. The virtual thread run needs JDK 21+ at runtime
+ * (the plugin itself targets 17, so it is started reflectively) and counts pinned parks reported by
+ * -Djdk.tracePinnedThreads. Any RatingSet that differs from the baseline fails the run.
+ *
+ * Run with: ./gradlew ratingStressTest -PofflineModel [-PstressJavaVersion=21] [-PstressArgs="--caches=true"]
+ *
+ * Options (defaults in parentheses): --threads (available processors), --requests (20000 per step),
+ * --quotes (64 distinct), --vehicles (10), --drivers (3), --mix (MIXED), --caches (false: true turns on
+ * the quote and incremental caches), --swapMillis (0: otherwise rate tables are
+ * reinstalled at that interval while rating), --minEfficiency (0.5).
+ */
+public final class ConcurrencyStressHarness {
+    private static final String[] CACHE_PROPERTIES = {
+            QuoteRatingCache.CAPACITY_PROPERTY,
+            IncrementalRatingCache.CAPACITY_PROPERTY
+    };
+    private static final long SAMPLE_MILLIS = 5;
+
+    private ConcurrencyStressHarness() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        int maxThreads = RatingLoadHarness.intOption(args, "threads", Runtime.getRuntime().availableProcessors());
+        int requests = RatingLoadHarness.intOption(args, "requests", 20_000);
+        int quoteCount = RatingLoadHarness.intOption(args, "quotes", 64);
+        int vehicles = RatingLoadHarness.intOption(args, "vehicles", 10);
+        int drivers = RatingLoadHarness.intOption(args, "drivers", 3);
+        SyntheticQuotes.CoverageMix mix =
+                SyntheticQuotes.CoverageMix.valueOf(RatingLoadHarness.option(args, "mix", "MIXED"));
+        boolean caches = Boolean.parseBoolean(RatingLoadHarness.option(args, "caches", "false"));
+        int swapMillis = RatingLoadHarness.intOption(args, "swapMillis", 0);
+        double minEfficiency = Double.parseDouble(RatingLoadHarness.option(args, "minEfficiency", "0.5"));
+
+        // VirtualThread reads this once, when the first virtual thread is created
+        if (System.getProperty("jdk.tracePinnedThreads") == null) {
+            System.setProperty("jdk.tracePinnedThreads", "short");
+        }
+
+        SimpleAutoQuoteRequest[] quotes = new SimpleAutoQuoteRequest[quoteCount];
+        for (int i = 0; i < quotes.length; i++) {
+            // Vary size and driver count so requests don't all hit the same cache entries and stripes
+            quotes[i] = SyntheticQuotes.request(1 + (vehicles - 1 + i) % vehicles, 1 + (drivers - 1 + i) % drivers, mix);
+        }
+        SimpleAutoRatingPlugin baselinePlugin = new SimpleAutoRatingPlugin();
+        RatingSet[] baseline = new RatingSet[quotes.length];
+        for (int i = 0; i < quotes.length; i++) {
+            baseline[i] = baselinePlugin.rate(quotes[i]);
+        }
+
+        SimpleAutoRatingPlugin plugin = caches ? withCaches(requests) : new SimpleAutoRatingPlugin();
+        System.out.printf("rating stress: threads=1..%d requests=%d quotes=%d vehicles<=%d drivers<=%d mix=%s "
+                        + "caches=%s swapMillis=%d%n",
+                maxThreads, requests, quoteCount, vehicles, drivers, mix, caches, swapMillis);
+
+        ThreadMXBean threadBean = ManagementFactory.getThreadMXBean();
+        if (threadBean.isThreadContentionMonitoringSupported()) {
+            threadBean.setThreadContentionMonitoringEnabled(true);
+        }
+
+        Swapper swapper = swapMillis > 0 ? Swapper.start(plugin, swapMillis) : null;
+        long mismatches = 0;
+        boolean flagged = false;
+        try {
+            runPlatform(plugin, quotes, baseline, maxThreads, requests, threadBean);
+
+            double singleThread = 0;
+            System.out.println("threads  quotes/s  speedup  efficiency  blocked(ms)  mismatches  top blocked-on monitors");
+            for (int threads : threadSteps(maxThreads)) {
+                Step step = runPlatform(plugin, quotes, baseline, threads, requests, threadBean);
+                if (threads == 1) {
+                    singleThread = step.throughput();
+                }
+                double speedup = step.throughput() / singleThread;
+                double efficiency = speedup / threads;
+                boolean lowEfficiency = efficiency < minEfficiency;
+                flagged |= lowEfficiency;
+                mismatches += step.mismatches();
+                System.out.printf("%7d  %8.0f  %7.2f  %10.2f  %11d  %10d  %s%s%n",
+                        threads, step.throughput(), speedup, efficiency, step.blockedMillis(), step.mismatches(),
+                        topMonitors(step.blockedOn()), lowEfficiency ? "  <-- below --minEfficiency" : "");
+            }
+
+            Step virtual = runVirtual(plugin, quotes, baseline, requests);
+            if (virtual == null) {
+                System.out.println("virtual threads: skipped, needs JDK 21+ (this JVM is "
+                        + Runtime.version().feature() + ")");
+            } else {
+                mismatches += virtual.mismatches();
+                flagged |= virtual.pinnedParks() > 0;
+                System.out.printf("virtual threads: %d concurrent calls, %.0f quotes/s, %d pinned parks, %d mismatches%n",
+                        requests, virtual.throughput(), virtual.pinnedParks(), virtual.mismatches());
+            }
+        } finally {
+            if (swapper != null) {
+                swapper.stop();
+                System.out.printf("rate table swaps during run: %d%n", swapper.swaps.get());
+            }
+        }
+
+        if (flagged) {
+            System.out.println("contention flagged: see rows above");
+        }
+        if (mismatches > 0) {
+            System.err.printf("%d RatingSets differed from the sequential baseline%n", mismatches);
+            System.exit(1);
+        }
+    }
+
+    private static SimpleAutoRatingPlugin withCaches(int capacity) {
+        for (String property : CACHE_PROPERTIES) {
+            System.setProperty(property, Integer.toString(capacity));
+        }
+        try {
+            return new SimpleAutoRatingPlugin();
+        } finally {
+            for (String property : CACHE_PROPERTIES) {
+                System.clearProperty(property);
+            }
+        }
+    }
+
+    private static List<Integer> threadSteps(int maxThreads) {
+        List<Integer> steps = new ArrayList<>();
+        for (int threads = 1; threads < maxThreads; threads *= 2) {
+            steps.add(threads);
+        }
+        steps.add(maxThreads);
+        return steps;
+    }
+
+    /**
+     * Rates requests calls split across a fixed pool of platform threads, sampling what they block on.
+     */
+    private static Step runPlatform(SimpleAutoRatingPlugin plugin, SimpleAutoQuoteRequest[] quotes,
+                                    RatingSet[] baseline, int threads, int requests, ThreadMXBean threadBean)
+            throws Exception {
+        List<Long> workerIds = new CopyOnWriteArrayList<>();
+        AtomicInteger workerNumber = new AtomicInteger();
+        ThreadFactory factory = task -> {
+            Thread thread = new Thread(task, "rating-stress-" + workerNumber.incrementAndGet());
+            workerIds.add(thread.getId());
+            return thread;
+        };
+        LongAdder mismatches = new LongAdder();
+        Map<String, LongAdder> blockedOn = new ConcurrentHashMap<>();
+        ExecutorService pool = Executors.newFixedThreadPool(threads, factory);
+        try {
+            List<Future<?>> workers = new ArrayList<>(threads);
+            long start = System.nanoTime();
+            for (int t = 0; t < threads; t++) {
+                int first = t;
+                workers.add(pool.submit(() -> {
+                    for (int i = first; i < requests; i += threads) {
+                        rateAndCheck(plugin, quotes, baseline, i, mismatches);
+                    }
+                }));
+            }
+            while (!allDone(workers)) {
+                sampleBlocked(threadBean, workerIds, blockedOn);
+                Thread.sleep(SAMPLE_MILLIS);
+            }
+            for (Future<?> worker : workers) {
+                worker.get();
+            }
+            long elapsed = System.nanoTime() - start;
+
+            long blockedMillis = 0;
+            for (ThreadInfo info : threadBean.getThreadInfo(toArray(workerIds))) {
+                if (info != null && info.getBlockedTime() > 0) {
+                    blockedMillis += info.getBlockedTime();
+                }
+            }
+            return new Step(requests / (elapsed / 1e9), mismatches.sum(), blockedMillis, blockedOn, 0);
+        } finally {
+            pool.shutdown();
+            pool.awaitTermination(1, TimeUnit.MINUTES);
+        }
+    }
+
+    /**
+     * Starts one virtual thread per call, so every call is in flight at once.
+     *
+     * @return The run, or null if this JVM has no virtual threads.
+     */
+    private static Step runVirtual(SimpleAutoRatingPlugin plugin, SimpleAutoQuoteRequest[] quotes,
+                                   RatingSet[] baseline, int requests) throws Exception {
+        ExecutorService pool;
+        try {
+            pool = (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (NoSuchMethodException e) {
+            return null;
+        }
+
+        LongAdder mismatches = new LongAdder();
+        PinnedParkCounter pinned = PinnedParkCounter.install();
+        long elapsed;
+        try {
+            List<Future<?>> calls = new ArrayList<>(requests);
+            long start = System.nanoTime();
+            for (int i = 0; i < requests; i++) {
+                int request = i;
+                calls.add(pool.submit(() -> rateAndCheck(plugin, quotes, baseline, request, mismatches)));
+            }
+            for (Future<?> call : calls) {
+                call.get();
+            }
+            elapsed = System.nanoTime() - start;
+        } finally {
+            pool.shutdown();
+            pool.awaitTermination(1, TimeUnit.MINUTES);
+            pinned.uninstall();
+        }
+        return new Step(requests / (elapsed / 1e9), mismatches.sum(), 0, Map.of(), pinned.parks.get());
+    }
+
+    private static void rateAndCheck(SimpleAutoRatingPlugin plugin, SimpleAutoQuoteRequest[] quotes,
+                                     RatingSet[] baseline, int i, LongAdder mismatches) {
+        int quote = i % quotes.length;
+        RatingSet ratingSet = plugin.rate(quotes[quote]);
+        if (!ratingSet.equals(baseline[quote])) {
+            mismatches.increment();
+        }
+    }
+
+    private static void sampleBlocked(ThreadMXBean threadBean, List<Long> workerIds, Map<String, LongAdder> blockedOn) {
+        for (ThreadInfo info : threadBean.getThreadInfo(toArray(workerIds))) {
+            if (info != null && info.getThreadState() == Thread.State.BLOCKED && info.getLockInfo() != null) {
+                blockedOn.computeIfAbsent(info.getLockInfo().getClassName(), lock -> new LongAdder()).increment();
+            }
+        }
+    }
+
+    private static String topMonitors(Map<String, LongAdder> blockedOn) {
+        Map<Long, String> bySamples = new TreeMap<>((a, b) -> Long.compare(b, a));
+        blockedOn.forEach((lock, samples) -> bySamples.merge(samples.sum(), lock, (x, y) -> x + ", " + y));
+        StringBuilder top = new StringBuilder();
+        int shown = 0;
+        for (Map.Entry<Long, String> entry : bySamples.entrySet()) {
+            if (shown++ == 3) {
+                break;
+            }
+            top.append(top.length() == 0 ? "" : "; ").append(entry.getValue()).append(" x").append(entry.getKey());
+        }
+        return top.length() == 0 ? "-" : top.toString();
+    }
+
+    private static boolean allDone(List<Future<?>> futures) {
+        for (Future<?> future : futures) {
+            if (!future.isDone()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static long[] toArray(List<Long> ids) {
+        long[] array = new long[ids.size()];
+        for (int i = 0; i < array.length; i++) {
+            array[i] = ids.get(i);
+        }
+        return array;
+    }
+
+    /**
+     * @param throughput    Quotes rated per second.
+     * @param mismatches    RatingSets that differed from the baseline.
+     * @param blockedMillis Total time worker threads spent BLOCKED on monitors.
+     * @param blockedOn     BLOCKED samples per monitor class.
+     * @param pinnedParks   Virtual thread parks reported as pinned.
+     */
+    private record Step(double throughput, long mismatches, long blockedMillis, Map<String, LongAdder> blockedOn,
+                        long pinnedParks) {
+    }
+
+    /**
+     * Reinstalls the current rate tables on a fixed interval, so rating runs across table swaps.
+     */
+    private static final class Swapper {
+        private final AtomicLong swaps = new AtomicLong();
+        private final Thread thread;
+
+        private Swapper(SimpleAutoRatingPlugin plugin, int intervalMillis) {
+            this.thread = new Thread(() -> {
+                while (!Thread.currentThread().isInterrupted()) {
+                    plugin.updateRateTables(RateTableData.CURRENT);
+                    swaps.incrementAndGet();
+                    try {
+                        Thread.sleep(intervalMillis);
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                }
+            }, "rating-stress-swapper");
+            this.thread.setDaemon(true);
+        }
+
+        static Swapper start(SimpleAutoRatingPlugin plugin, int intervalMillis) {
+            Swapper swapper = new Swapper(plugin, intervalMillis);
+            swapper.thread.start();
+            return swapper;
+        }
+
+        void stop() throws InterruptedException {
+            thread.interrupt();
+            thread.join();
+        }
+    }
+
+    /**
+     * Counts the pinned-park traces the JDK writes to System.out under -Djdk.tracePinnedThreads, while
+     * still passing them through.
+     */
+    private static final class PinnedParkCounter extends OutputStream {
+        // Each trace names the frames holding monitors with this marker
+        private static final String MARKER = "<== monitors";
+
+        private final PrintStream original;
+        private final AtomicLong parks = new AtomicLong();
+        private final StringBuilder line = new StringBuilder();
+
+        private PinnedParkCounter(PrintStream original) {
+            this.original = original;
+        }
+
+        static PinnedParkCounter install() {
+            PinnedParkCounter counter = new PinnedParkCounter(System.out);
+            System.setOut(new PrintStream(counter, true));
+            return counter;
+        }
+
+        void uninstall() {
+            System.setOut(original);
+        }
+
+        @Override
+        public synchronized void write(int b) {
+            original.write(b);
+            if (b == '\n') {
+                if (line.indexOf(MARKER) >= 0) {
+                    parks.incrementAndGet();
+                }
+                line.setLength(0);
+            } else {
+                line.append((char) b);
+            }
+        }
+
+        @Override
+        public void flush() {
+            original.flush();
+        }
+    }
+}
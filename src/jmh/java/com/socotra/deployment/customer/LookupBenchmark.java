@@ -0,0 +1,100 @@
+package com.socotra.deployment.customer;
+
+import com.socotra.coremodel.Deductible;
+import com.socotra.coremodel.Limit;
+import com.socotra.coremodel.SimpleAutoQuote;
+import com.socotra.coremodel.Vehicle;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks each rating lookup on its own. Inputs cycle through every option so the JIT
+ * can't constant-fold a single lookup.
+ *
+ * Run with: ./gradlew jmh -PjmhInclude=LookupBenchmark
+ */
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LookupBenchmark {
+    private static final VehicleType[] VEHICLE_TYPES = VehicleType.values();
+    private static final Limit[] LIMITS = Limit.values();
+    private static final Deductible[] DEDUCTIBLES = Deductible.values();
+
+    @Param({"1", "5", "50", "500"})
+    public int driverCount;
+
+    private SimpleAutoRatingPlugin plugin;
+    private RateTables rateTables;
+    private PremiumGrid premiumGrid;
+    private SimpleAutoQuote quote;
+    private Vehicle[] vehicles;
+    private LocalDate ratingDate;
+    private AgeBandCutoffs ageBandCutoffs;
+    private LocalDate[] birthDates;
+    private int i;
+
+    @Setup
+    public void setUp() {
+        plugin = new SimpleAutoRatingPlugin();
+        rateTables = RateTableData.CURRENT;
+        premiumGrid = PremiumGrid.build(rateTables);
+        quote = SyntheticQuotes.quote(VEHICLE_TYPES.length, driverCount, SyntheticQuotes.CoverageMix.FULL);
+        vehicles = quote.vehicles().toArray(new Vehicle[0]);
+        ratingDate = LocalDate.of(2025, 1, 1);
+        ageBandCutoffs = AgeBandCutoffs.of(rateTables, ratingDate);
+        // One driver of every age from 16 to 85
+        birthDates = new LocalDate[70];
+        for (int age = 0; age < birthDates.length; age++) {
+            birthDates[age] = ratingDate.minusYears(16 + age);
+        }
+    }
+
+    private int next() {
+        return (i = (i + 1) & 0x7fff_ffff);
+    }
+
+    @Benchmark
+    public VehicleType lookupVehicleType() {
+        return plugin.lookupVehicleType(vehicles[next() % vehicles.length]);
+    }
+
+    @Benchmark
+    public long lookupBaseRate() {
+        return rateTables.baseRate(VEHICLE_TYPES[next() % VEHICLE_TYPES.length]);
+    }
+
+    @Benchmark
+    public long lookupLimitFactor() {
+        return rateTables.limitFactor(LIMITS[next() % LIMITS.length]);
+    }
+
+    @Benchmark
+    public long lookupDeductibleFactor() {
+        return rateTables.deductibleFactor(DEDUCTIBLES[next() % DEDUCTIBLES.length]);
+    }
+
+    @Benchmark
+    public long lookupDriverAgeFactor() {
+        return rateTables.ageFactor(ageBandCutoffs.ageBand(birthDates[next() % birthDates.length]));
+    }
+
+    @Benchmark
+    public int lookupHighestDriverAgeBand() {
+        return plugin.lookupHighestDriverAgeBand(quote, ratingDate, rateTables);
+    }
+
+    @Benchmark
+    public BigDecimal lookupPremium() {
+        int n = next();
+        return premiumGrid.premium(CoverageType.UninsuredMotorist, VEHICLE_TYPES[n % VEHICLE_TYPES.length],
+                n % rateTables.ageBandCount(), LIMITS[n % LIMITS.length], DEDUCTIBLES[n % DEDUCTIBLES.length],
+                rateTables.vehicleFactor(n % rateTables.territoryCount(), n % rateTables.symbolCount()));
+    }
+}
@@ -0,0 +1,50 @@
+package com.socotra.deployment.customer;
+
+import com.socotra.coremodel.SimpleAutoQuoteRequest;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Portfolio re-rating benchmark: rateBatch against rateBatchColumnar over the same batch of quotes.
+ *
+ * Run with: ./gradlew jmh -PjmhInclude=PortfolioBenchmark
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PortfolioBenchmark {
+
+    @Param({"1000", "10000"})
+    public int quoteCount;
+
+    @Param({"1", "10"})
+    public int vehicleCount;
+
+    private SimpleAutoRatingPlugin plugin;
+    private List<SimpleAutoQuoteRequest> requests;
+
+    @Setup
+    public void setUp() {
+        plugin = new SimpleAutoRatingPlugin();
+        requests = new ArrayList<>(quoteCount);
+        for (int i = 0; i < quoteCount; i++) {
+            requests.add(SyntheticQuotes.request(vehicleCount, 2, SyntheticQuotes.CoverageMix.MIXED));
+        }
+    }
+
+    @Benchmark
+    public List<BatchRatingResult> rateBatch() {
+        return plugin.rateBatch(requests);
+    }
+
+    @Benchmark
+    public List<BatchRatingResult> rateBatchColumnar() {
+        return plugin.rateBatchColumnar(requests);
+    }
+}
@@ -0,0 +1,29 @@
+package com.socotra.deployment.customer;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Compiles a properties-format rate table (the rating/*.properties format) into a RateTableFile.
+ *
+ * Run with: ./gradlew writeRateTableFile -PrateTableSource=rates.properties -PrateTableFile=rates.bin
+ */
+public final class RateTableFileTool {
+
+    private RateTableFileTool() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length != 2) {
+            System.err.println("usage: RateTableFileTool <source.properties> <output file>");
+            System.exit(2);
+        }
+
+        RateTables rateTables = RateTables.parse(Files.readString(Path.of(args[0])));
+        RateTableFile.write(rateTables, Path.of(args[1]));
+
+        // Read it back so a bad file is caught here rather than by the watcher
+        RateTables written = RateTableFile.read(Path.of(args[1]));
+        System.out.printf("wrote rate tables version=%s to %s%n", written.version(), args[1]);
+    }
+}
@@ -0,0 +1,44 @@
+package com.socotra.deployment.customer;
+
+import com.socotra.coremodel.RatingSet;
+import com.socotra.coremodel.SimpleAutoQuoteRequest;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * End-to-end benchmark of SimpleAutoRatingPlugin.rate across quote sizes and coverage mixes.
+ *
+ * Run with: ./gradlew jmh -PjmhInclude=RatingBenchmark
+ */
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RatingBenchmark {
+
+    @Param({"1", "10", "100", "1000", "10000"})
+    public int vehicleCount;
+
+    @Param({"1", "5", "50", "500"})
+    public int driverCount;
+
+    @Param({"REQUIRED", "MIXED", "FULL"})
+    public String coverageMix;
+
+    private SimpleAutoRatingPlugin plugin;
+    private SimpleAutoQuoteRequest request;
+
+    @Setup
+    public void setUp() {
+        plugin = new SimpleAutoRatingPlugin();
+        request = SyntheticQuotes.request(vehicleCount, driverCount, SyntheticQuotes.CoverageMix.valueOf(coverageMix));
+    }
+
+    @Benchmark
+    public RatingSet rate() {
+        return plugin.rate(request);
+    }
+}
@@ -0,0 +1,112 @@
+package com.socotra.deployment.customer;
+
+import com.socotra.coremodel.RatingSet;
+import com.socotra.coremodel.SimpleAutoQuoteRequest;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * In-process load harness: fires rate() calls at one shared plugin instance from many threads and
+ * reports throughput and latency percentiles. Needs no tenant when run against the offline model.
+ *
+ * Run with: ./gradlew ratingLoadTest -PofflineModel -PloadArgs="--threads=32 --requests=200000"
+ *
+ * Options (defaults in parentheses): --threads (available processors), --requests (100000),
+ * --warmup (20000), --vehicles (10), --drivers (3), --mix (MIXED).
+ */
+public final class RatingLoadHarness {
+
+    private RatingLoadHarness() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        int threads = intOption(args, "threads", Runtime.getRuntime().availableProcessors());
+        int requests = intOption(args, "requests", 100_000);
+        int warmup = intOption(args, "warmup", 20_000);
+        int vehicles = intOption(args, "vehicles", 10);
+        int drivers = intOption(args, "drivers", 3);
+        SyntheticQuotes.CoverageMix mix = SyntheticQuotes.CoverageMix.valueOf(option(args, "mix", "MIXED"));
+
+        SimpleAutoRatingPlugin plugin = new SimpleAutoRatingPlugin();
+        SimpleAutoQuoteRequest request = SyntheticQuotes.request(vehicles, drivers, mix);
+
+        System.out.printf("rating load: threads=%d requests=%d vehicles=%d drivers=%d mix=%s%n",
+                threads, requests, vehicles, drivers, mix);
+
+        run(plugin, request, threads, warmup);
+        long[] latencies = run(plugin, request, threads, requests);
+        report(latencies);
+    }
+
+    /**
+     * Rates the same request the given number of times, split across threads.
+     *
+     * @return The latency of every call in nanoseconds, plus total elapsed nanos in the last slot.
+     */
+    static long[] run(SimpleAutoRatingPlugin plugin, SimpleAutoQuoteRequest request, int threads, int requests)
+            throws Exception {
+        long[] latencies = new long[requests + 1];
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> workers = new ArrayList<>(threads);
+            long start = System.nanoTime();
+            for (int t = 0; t < threads; t++) {
+                int first = t;
+                workers.add(pool.submit(() -> {
+                    for (int i = first; i < requests; i += threads) {
+                        long begin = System.nanoTime();
+                        RatingSet ratingSet = plugin.rate(request);
+                        latencies[i] = System.nanoTime() - begin;
+                        if (!ratingSet.ok()) {
+                            throw new IllegalStateException("rate() returned a failed RatingSet");
+                        }
+                    }
+                }));
+            }
+            for (Future<?> worker : workers) {
+                worker.get();
+            }
+            latencies[requests] = System.nanoTime() - start;
+        } finally {
+            pool.shutdown();
+            pool.awaitTermination(1, TimeUnit.MINUTES);
+        }
+        return latencies;
+    }
+
+    private static void report(long[] latencies) {
+        int requests = latencies.length - 1;
+        long elapsed = latencies[requests];
+        long[] sorted = Arrays.copyOf(latencies, requests);
+        Arrays.sort(sorted);
+
+        System.out.printf("throughput: %.0f quotes/s%n", requests / (elapsed / 1e9));
+        System.out.printf("latency us: p50=%.1f p90=%.1f p99=%.1f p99.9=%.1f max=%.1f%n",
+                percentile(sorted, 0.50), percentile(sorted, 0.90), percentile(sorted, 0.99),
+                percentile(sorted, 0.999), sorted[requests - 1] / 1e3);
+    }
+
+    private static double percentile(long[] sorted, double percentile) {
+        return sorted[(int) Math.min(sorted.length - 1, Math.ceil(percentile * sorted.length) - 1)] / 1e3;
+    }
+
+    static String option(String[] args, String name, String defaultValue) {
+        String prefix = "--" + name + "=";
+        for (String arg : args) {
+            if (arg.startsWith(prefix)) {
+                return arg.substring(prefix.length());
+            }
+        }
+        return defaultValue;
+    }
+
+    static int intOption(String[] args, String name, int defaultValue) {
+        return Integer.parseInt(option(args, name, Integer.toString(defaultValue)));
+    }
+}
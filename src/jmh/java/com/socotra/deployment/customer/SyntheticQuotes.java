@@ -0,0 +1,112 @@
+package com.socotra.deployment.customer;
+
+import com.socotra.coremodel.*;
+import com.socotra.platform.tools.ULID;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+
+/**
+ * Builds deterministic SimpleAuto quotes of arbitrary size for benchmarks and load tests.
+ */
+final class SyntheticQuotes {
+
+    /**
+     * Which optional coverages are attached to each synthetic vehicle.
+     */
+    enum CoverageMix {
+        /** BodilyInjury and PropertyDamage only. */
+        REQUIRED,
+        /** Every coverage on every vehicle. */
+        FULL,
+        /** Each optional coverage on roughly half the vehicles. */
+        MIXED
+    }
+
+    private static final String[] VEHICLE_TYPES = {"Car", "Truck", "Motorcycle"};
+    private static final Limit[] LIMITS = Limit.values();
+    private static final Deductible[] DEDUCTIBLES = Deductible.values();
+    private static final Instant START_TIME = LocalDate.of(2025, 1, 1).atStartOfDay(ZoneOffset.UTC).toInstant();
+
+    private SyntheticQuotes() {
+    }
+
+    /**
+     * @param vehicleCount The number of vehicles on the quote.
+     * @param driverCount  The number of drivers on the quote.
+     * @param coverageMix  Which optional coverages to attach.
+     * @return A rating request for a quote of the given shape.
+     */
+    static SimpleAutoQuoteRequest request(int vehicleCount, int driverCount, CoverageMix coverageMix) {
+        return new SimpleAutoQuoteRequest(quote(vehicleCount, driverCount, coverageMix));
+    }
+
+    static SimpleAutoQuote quote(int vehicleCount, int driverCount, CoverageMix coverageMix) {
+        Address address = Address.builder()
+                .line1("1 Main St")
+                .city("Springfield")
+                .state("IL")
+                .zip("62701")
+                .build();
+
+        SimpleAutoQuote.Builder quote = SimpleAutoQuote.builder()
+                .locator(ULID.generate())
+                .startTime(START_TIME)
+                .data(SimpleAutoData.builder().policyAddress(address).build());
+
+        for (int i = 0; i < vehicleCount; i++) {
+            quote.addVehicles(vehicle(i, address, coverageMix));
+        }
+        for (int i = 0; i < driverCount; i++) {
+            quote.addDrivers(driver(i));
+        }
+        return quote.build();
+    }
+
+    private static Vehicle vehicle(int i, Address address, CoverageMix coverageMix) {
+        VehicleData data = VehicleData.builder()
+                .vehicleType(VEHICLE_TYPES[i % VEHICLE_TYPES.length])
+                .make("Make" + (i % 20))
+                .model("Model" + (i % 50))
+                .year(2000 + (i % 25))
+                .value(BigDecimal.valueOf(5_000 + (i % 90) * 1_000L))
+                .garagingAddress(address)
+                .build();
+
+        Vehicle.Builder vehicle = Vehicle.builder()
+                .locator(ULID.generate())
+                .data(data)
+                .bodilyInjury(BodilyInjury.builder().locator(ULID.generate()).limit(LIMITS[i % LIMITS.length]).build())
+                .propertyDamage(PropertyDamage.builder().locator(ULID.generate()).limit(LIMITS[(i + 1) % LIMITS.length]).build());
+
+        boolean full = coverageMix == CoverageMix.FULL;
+        boolean mixed = coverageMix == CoverageMix.MIXED;
+        if (full || (mixed && i % 2 == 0)) {
+            vehicle.collision(Collision.builder().locator(ULID.generate()).deductible(DEDUCTIBLES[i % DEDUCTIBLES.length]).build());
+        }
+        if (full || (mixed && i % 3 != 0)) {
+            vehicle.comprehensive(Comprehensive.builder().locator(ULID.generate()).deductible(DEDUCTIBLES[(i + 2) % DEDUCTIBLES.length]).build());
+        }
+        if (full || (mixed && i % 4 == 1)) {
+            vehicle.uninsuredMotorist(UninsuredMotorist.builder()
+                    .locator(ULID.generate())
+                    .limit(LIMITS[(i + 3) % LIMITS.length])
+                    .deductible(DEDUCTIBLES[(i + 4) % DEDUCTIBLES.length])
+                    .build());
+        }
+        return vehicle.build();
+    }
+
+    private static Driver driver(int i) {
+        // Spread drivers across every age band, oldest first, so the highest-factor driver is found late
+        int age = 79 - (i * 7) % 62;
+        DriverData data = DriverData.builder()
+                .firstName("Driver")
+                .lastName("No" + i)
+                .dateOfBirth(LocalDate.of(2025 - age, 1 + i % 12, 1 + i % 28))
+                .build();
+        return Driver.builder().locator(ULID.generate()).data(data).build();
+    }
+}
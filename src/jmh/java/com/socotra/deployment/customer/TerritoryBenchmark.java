@@ -0,0 +1,55 @@
+package com.socotra.deployment.customer;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks TerritoryIndex lookups and startup parsing against a synthetic table the size of the
+ * full US ZIP list (~42k ZIPs).
+ *
+ * Run with: ./gradlew jmh -PjmhInclude=TerritoryBenchmark
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TerritoryBenchmark {
+    private static final int ZIP_COUNT = 42_000;
+
+    private byte[] source;
+    private TerritoryIndex territoryIndex;
+    private String[] zips;
+    private int i;
+
+    @Setup
+    public void setUp() {
+        StringBuilder text = new StringBuilder("# zip,territory\n");
+        zips = new String[ZIP_COUNT];
+        for (int n = 0; n < ZIP_COUNT; n++) {
+            // Spread over the ZIP range, including some gaps that fall back to the state default
+            zips[n] = String.format("%05d", 501 + n * 2 + (n % 7 == 0 ? 1 : 0));
+            if (n % 7 != 0) {
+                text.append(zips[n]).append(',').append(n % 40).append('\n');
+            }
+        }
+        text.append("IL,3\n");
+        source = text.toString().getBytes(StandardCharsets.US_ASCII);
+        territoryIndex = TerritoryIndex.parse(source);
+    }
+
+    @Benchmark
+    public int lookupTerritory() {
+        i = (i + 1) % ZIP_COUNT;
+        return territoryIndex.territory(zips[i]);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public TerritoryIndex parse() {
+        return TerritoryIndex.parse(source);
+    }
+}
@@ -0,0 +1,98 @@
+package com.socotra.deployment.customer;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks VehicleSymbolIndex lookups against a synthetic memory-mapped file of 3 million VIN
+ * prefixes and 50k make/models.
+ *
+ * Run with: ./gradlew jmh -PjmhInclude=VehicleSymbolBenchmark
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class VehicleSymbolBenchmark {
+    private static final int VIN_COUNT = 3_000_000;
+    private static final int MAKE_MODEL_COUNT = 50_000;
+    private static final int LOOKUPS = 4096;
+    private static final String VIN_CHARACTERS = "0123456789ABCDEFGHJKLMNPRSTUVWXYZ";
+
+    private Path file;
+    private VehicleSymbolIndex vehicleSymbolIndex;
+    private String[] vins;
+    private int[] years;
+    private String[] models;
+    private int i;
+
+    @Setup
+    public void setUp() throws IOException {
+        long[] vinRecords = new long[VIN_COUNT];
+        vins = new String[LOOKUPS];
+        years = new int[LOOKUPS];
+        for (int n = 0; n < VIN_COUNT; n++) {
+            String vin = vinPrefix(n);
+            int year = 1990 + n % 35;
+            vinRecords[n] = VehicleSymbolIndex.vinKey(vin, year) << 8 | n % 27;
+            if (n % (VIN_COUNT / LOOKUPS) == 0 && n / (VIN_COUNT / LOOKUPS) < LOOKUPS) {
+                vins[n / (VIN_COUNT / LOOKUPS)] = vin + "X1234567";
+                years[n / (VIN_COUNT / LOOKUPS)] = year;
+            }
+        }
+
+        long[] makeModelHashes = new long[MAKE_MODEL_COUNT];
+        long[] makeModelYears = new long[MAKE_MODEL_COUNT];
+        models = new String[LOOKUPS];
+        for (int n = 0; n < MAKE_MODEL_COUNT; n++) {
+            makeModelHashes[n] = VehicleSymbolIndex.makeModelHash("MAKE" + n % 60, "MODEL" + n);
+            makeModelYears[n] = (long) (1990 + n % 35) << 8 | n % 27;
+        }
+        for (int n = 0; n < LOOKUPS; n++) {
+            models[n] = "MODEL" + n * 7;
+        }
+
+        file = Files.createTempFile("vehicle-symbols", ".bin");
+        VehicleSymbolIndex.write(vinRecords, makeModelHashes, makeModelYears, file);
+        vehicleSymbolIndex = VehicleSymbolIndex.open(file);
+        // Every lookup VIN is in the file, including W, X, Y and Z WMIs, so a miss means a broken index
+        for (int n = 0; n < LOOKUPS; n++) {
+            if (vehicleSymbolIndex.vinSymbol(vins[n], years[n]) < 0) {
+                throw new IllegalStateException("VehicleSymbolIndex lost VIN " + vins[n]);
+            }
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    @Benchmark
+    public int lookupVin() {
+        i = (i + 1) % LOOKUPS;
+        return vehicleSymbolIndex.vinSymbol(vins[i], years[i]);
+    }
+
+    @Benchmark
+    public int lookupMakeModel() {
+        i = (i + 1) % LOOKUPS;
+        int n = i * 7;
+        return vehicleSymbolIndex.makeModelSymbol("MAKE" + n % 60, models[i], 1990 + n % 35);
+    }
+
+    private static String vinPrefix(int n) {
+        char[] prefix = new char[8];
+        for (int c = 7; c >= 0; c--) {
+            prefix[c] = VIN_CHARACTERS.charAt(n % VIN_CHARACTERS.length());
+            n /= VIN_CHARACTERS.length();
+        }
+        return new String(prefix);
+    }
+}
@@ -0,0 +1,83 @@
+package com.socotra.deployment.customer;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Compiles a CSV vehicle symbol source into a VehicleSymbolIndex file. Each line is either
+ * "vinPrefix,year,symbol" (the VIN's first 8 characters) or "make,model,year,symbol". Blank lines and
+ * lines starting with # are ignored.
+ *
+ * Run with: ./gradlew writeVehicleSymbolFile -PvehicleSymbolSource=symbols.csv -PvehicleSymbolFile=symbols.bin
+ */
+public final class VehicleSymbolFileTool {
+
+    private VehicleSymbolFileTool() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length != 2) {
+            System.err.println("usage: VehicleSymbolFileTool <source.csv> <output file>");
+            System.exit(2);
+        }
+
+        List<String> lines = Files.readAllLines(Path.of(args[0]));
+        long[] vinRecords = new long[lines.size()];
+        long[] makeModelHashes = new long[lines.size()];
+        long[] makeModelYears = new long[lines.size()];
+        int vinCount = 0;
+        int makeModelCount = 0;
+
+        for (int n = 0; n < lines.size(); n++) {
+            String line = lines.get(n).trim();
+            if (line.isEmpty() || line.startsWith("#")) {
+                continue;
+            }
+            String[] fields = line.split(",", -1);
+            if (fields.length == 3) {
+                int year = Integer.parseInt(fields[1].trim());
+                long key = VehicleSymbolIndex.vinKey(fields[0].trim(), year);
+                if (key < 0 || fields[0].trim().length() != 8) {
+                    throw new IllegalArgumentException("line " + (n + 1) + ": expected an 8-character VIN prefix and a year 1900-2155");
+                }
+                vinRecords[vinCount++] = key << 8 | symbol(fields[2], n);
+            } else if (fields.length == 4) {
+                makeModelHashes[makeModelCount] = VehicleSymbolIndex.makeModelHash(fields[0], fields[1]);
+                makeModelYears[makeModelCount++] = (long) Integer.parseInt(fields[2].trim()) << 8 | symbol(fields[3], n);
+            } else {
+                throw new IllegalArgumentException("line " + (n + 1) + ": expected vinPrefix,year,symbol or make,model,year,symbol");
+            }
+        }
+
+        vinRecords = Arrays.copyOf(vinRecords, vinCount);
+        makeModelHashes = Arrays.copyOf(makeModelHashes, makeModelCount);
+        makeModelYears = Arrays.copyOf(makeModelYears, makeModelCount);
+        VehicleSymbolIndex.write(vinRecords.clone(), makeModelHashes, makeModelYears, Path.of(args[1]));
+
+        // Map it back and look every record up, so a bad file is caught here rather than at rating time
+        VehicleSymbolIndex written = VehicleSymbolIndex.open(Path.of(args[1]));
+        for (long record : vinRecords) {
+            if (written.vinKeySymbol(record >>> 8) != (int) (record & 0xFF)) {
+                throw new IllegalStateException("VIN key " + (record >>> 8) + " doesn't round-trip");
+            }
+        }
+        for (int i = 0; i < makeModelCount; i++) {
+            if (written.makeModelHashSymbol(makeModelHashes[i], (int) (makeModelYears[i] >>> 8))
+                    != (int) (makeModelYears[i] & 0xFF)) {
+                throw new IllegalStateException("make/model hash " + makeModelHashes[i] + " doesn't round-trip");
+            }
+        }
+        System.out.printf("wrote %d VIN prefixes and %d make/models to %s%n", written.vinRecords(),
+                written.makeModelRecords(), args[1]);
+    }
+
+    private static int symbol(String field, int n) {
+        int symbol = Integer.parseInt(field.trim());
+        if (symbol < 0 || symbol >= RateTables.MAX_SYMBOLS) {
+            throw new IllegalArgumentException("line " + (n + 1) + ": symbol must be 0-" + (RateTables.MAX_SYMBOLS - 1));
+        }
+        return symbol;
+    }
+}
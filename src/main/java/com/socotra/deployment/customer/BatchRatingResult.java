@@ -0,0 +1,49 @@
+package com.socotra.deployment.customer;
+
+import com.socotra.coremodel.RatingSet;
+import com.socotra.coremodel.SimpleAutoQuoteRequest;
+
+/**
+ * Outcome of rating one request in a batch: either its RatingSet, or the failure that stopped it.
+ */
+public final class BatchRatingResult {
+    private final SimpleAutoQuoteRequest request;
+    private final RatingSet ratingSet;
+    private final RuntimeException failure;
+
+    private BatchRatingResult(SimpleAutoQuoteRequest request, RatingSet ratingSet, RuntimeException failure) {
+        this.request = request;
+        this.ratingSet = ratingSet;
+        this.failure = failure;
+    }
+
+    static BatchRatingResult success(SimpleAutoQuoteRequest request, RatingSet ratingSet) {
+        return new BatchRatingResult(request, ratingSet, null);
+    }
+
+    static BatchRatingResult failure(SimpleAutoQuoteRequest request, RuntimeException failure) {
+        return new BatchRatingResult(request, null, failure);
+    }
+
+    public SimpleAutoQuoteRequest request() {
+        return request;
+    }
+
+    public boolean ok() {
+        return failure == null;
+    }
+
+    /**
+     * @return The request's RatingSet, or null if rating failed.
+     */
+    public RatingSet ratingSet() {
+        return ratingSet;
+    }
+
+    /**
+     * @return The exception that failed this request, or null if rating succeeded.
+     */
+    public RuntimeException failure() {
+        return failure;
+    }
+}
@@ -0,0 +1,133 @@
+package com.socotra.deployment.customer;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Size-bounded, thread-safe LRU cache shared by the plugin's rating caches.
+ *
+ * Entries are spread across independently locked stripes, each an access-ordered LinkedHashMap
+ * that evicts its least recently used entry once it holds capacity / stripes entries, so
+ * concurrent rate() calls rarely contend on the same lock. With a time-to-live, entries older than
+ * the TTL are dropped on their next get() and counted as expirations as well as misses.
+ */
+final class BoundedCache<K, V> {
+    private final Stripe<K, V>[] stripes;
+    private final int mask;
+    private final long ttlNanos;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder expirations = new LongAdder();
+
+    /**
+     * @param capacity The maximum number of entries held.
+     * @param stripes  The number of lock stripes, rounded up to a power of two.
+     */
+    BoundedCache(int capacity, int stripes) {
+        this(capacity, stripes, 0);
+    }
+
+    /**
+     * @param capacity The maximum number of entries held.
+     * @param stripes  The number of lock stripes, rounded up to a power of two.
+     * @param ttlNanos How long an entry stays valid after it is put, or 0 for no expiry.
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    BoundedCache(int capacity, int stripes, long ttlNanos) {
+        int stripeCount = Integer.highestOneBit(Math.max(1, stripes - 1) << 1);
+        int stripeCapacity = Math.max(1, capacity / stripeCount);
+
+        this.stripes = new Stripe[stripeCount];
+        for (int i = 0; i < stripeCount; i++) {
+            this.stripes[i] = new Stripe<>(stripeCapacity);
+        }
+        this.mask = stripeCount - 1;
+        this.ttlNanos = ttlNanos;
+    }
+
+    /**
+     * @param key The key to look up.
+     * @return The cached value, or null if absent.
+     */
+    V get(K key) {
+        Stripe<K, V> stripe = stripe(key);
+        Node<V> node;
+        synchronized (stripe) {
+            node = stripe.get(key);
+            if (node != null && ttlNanos > 0 && System.nanoTime() - node.putNanos > ttlNanos) {
+                stripe.remove(key);
+                expirations.increment();
+                node = null;
+            }
+        }
+        if (node == null) {
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        return node.value;
+    }
+
+    void put(K key, V value) {
+        Node<V> node = new Node<>(value, ttlNanos > 0 ? System.nanoTime() : 0);
+        Stripe<K, V> stripe = stripe(key);
+        synchronized (stripe) {
+            stripe.put(key, node);
+        }
+    }
+
+    void clear() {
+        for (Stripe<K, V> stripe : stripes) {
+            synchronized (stripe) {
+                stripe.clear();
+            }
+        }
+    }
+
+    int size() {
+        int size = 0;
+        for (Stripe<K, V> stripe : stripes) {
+            synchronized (stripe) {
+                size += stripe.size();
+            }
+        }
+        return size;
+    }
+
+    long hits() {
+        return hits.sum();
+    }
+
+    long misses() {
+        return misses.sum();
+    }
+
+    long expirations() {
+        return expirations.sum();
+    }
+
+    private Stripe<K, V> stripe(K key) {
+        int hash = key.hashCode();
+        return stripes[(hash ^ (hash >>> 16)) & mask];
+    }
+
+    private record Node<V>(V value, long putNanos) {
+    }
+
+    private static final class Stripe<K, V> extends LinkedHashMap<K, Node<V>> {
+        private static final long serialVersionUID = 1L;
+
+        private final int capacity;
+
+        Stripe(int capacity) {
+            super(16, 0.75f, true);
+            this.capacity = capacity;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<K, Node<V>> eldest) {
+            return size() > capacity;
+        }
+    }
+}
@@ -0,0 +1,31 @@
+// Generated by ./gradlew generateRatingConstants from socotra-config and rating/*.properties.
+// Do not edit: change the sources and re-run the task.
+package com.socotra.deployment.customer;
+
+/**
+ * Coverages available on a Vehicle, in socotra-config/exposures/Vehicle contents order, and which
+ * coverageTerms factor into each one's premium (see socotra-config/coverages/*).
+ */
+enum CoverageType {
+    BodilyInjury(true, false),
+    PropertyDamage(true, false),
+    Collision(false, true),
+    Comprehensive(false, true),
+    UninsuredMotorist(true, true);
+
+    private final boolean usesLimit;
+    private final boolean usesDeductible;
+
+    CoverageType(boolean usesLimit, boolean usesDeductible) {
+        this.usesLimit = usesLimit;
+        this.usesDeductible = usesDeductible;
+    }
+
+    boolean usesLimit() {
+        return usesLimit;
+    }
+
+    boolean usesDeductible() {
+        return usesDeductible;
+    }
+}
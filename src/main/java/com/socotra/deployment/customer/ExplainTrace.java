@@ -0,0 +1,202 @@
+package com.socotra.deployment.customer;
+
+import com.socotra.coremodel.Deductible;
+import com.socotra.coremodel.Limit;
+import com.socotra.platform.tools.ULID;
+
+import java.lang.invoke.VarHandle;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Records the factor chain behind each RatingItem so a disputed premium can be explained after the fact.
+ *
+ * Coverages are recorded into a fixed set of preallocated ring buffers of packed coverage keys (see
+ * RatingKeys) and locator references, so recording allocates nothing and formats nothing. Base rates and
+ * factors are looked up and rendered to text only when {@link #explain(ULID)} is called.
+ *
+ * Rating threads are spread across the rings by thread id, and the rings are shared rather than owned
+ * by a thread, so thread-per-request and virtual thread callers keep their traces after the thread
+ * exits, and memory stays at RINGS * -Dsimpleauto.rating.explain.capacity entries however many threads
+ * rate. Each ring keeps the last capacity coverages written to it, so at least the last capacity
+ * coverages rated overall are always explainable.
+ */
+final class ExplainTrace {
+    static final String CAPACITY_PROPERTY = "simpleauto.rating.explain.capacity";
+    // Power of two; enough rings that concurrent rating threads rarely share a ring's lock
+    private static final int RINGS = 16;
+
+    private final AtomicLong requestIds = new AtomicLong();
+    private final Ring[] rings = new Ring[RINGS];
+
+    ExplainTrace(int capacity) {
+        for (int i = 0; i < rings.length; i++) {
+            rings[i] = new Ring(capacity);
+        }
+    }
+
+    /**
+     * @return A trace sized by -Dsimpleauto.rating.explain.capacity, or null if it is unset or 0.
+     */
+    static ExplainTrace create() {
+        int capacity = Integer.getInteger(CAPACITY_PROPERTY, 0);
+        return capacity > 0 ? new ExplainTrace(capacity) : null;
+    }
+
+    /**
+     * Starts tracing one rate() call.
+     *
+     * @param quoteLocator  The quote being rated.
+     * @param driverLocator The driver whose age band was applied, or null if the policy has no drivers.
+     * @param ratingDate    The date driver ages were calculated against.
+     * @param grid          The premium grid the request is rated against.
+     * @return The request's trace handle, shared by every coverage it rates.
+     */
+    Request begin(ULID quoteLocator, ULID driverLocator, LocalDate ratingDate, PremiumGrid grid) {
+        return new Request(requestIds.incrementAndGet(), quoteLocator, driverLocator, ratingDate, grid);
+    }
+
+    /**
+     * @param request         The request's trace handle.
+     * @param coverageLocator The coverage rated.
+     * @param vehicleIndex    The vehicle's position in the policy.
+     * @param coverageKey     The coverage's packed rating inputs (see RatingKeys).
+     */
+    void record(Request request, ULID coverageLocator, int vehicleIndex, long coverageKey) {
+        Ring ring = rings[(int) Thread.currentThread().getId() & (RINGS - 1)];
+        ring.write(request, coverageLocator, vehicleIndex, coverageKey);
+    }
+
+    /**
+     * Renders the most recent rating of a quote (every coverage) or of a single coverage.
+     *
+     * @param locator A quote or coverage locator.
+     * @return One line for the request, then one line per coverage, or an empty list if the locator is not in
+     *         any ring buffer.
+     */
+    List<String> explain(ULID locator) {
+        List<Entry> matches = new ArrayList<>();
+        for (Ring ring : rings) {
+            ring.collect(locator, matches);
+        }
+        if (matches.isEmpty()) {
+            return List.of();
+        }
+
+        Request request = matches.stream().map(Entry::request).max(Comparator.comparingLong(Request::id)).get();
+        List<String> lines = new ArrayList<>();
+        RateTables rateTables = request.grid().rateTables();
+        lines.add("quote=" + request.quoteLocator() + " ratingDate=" + request.ratingDate()
+                + " rateTables=" + rateTables.version() + " driver=" + request.driverLocator());
+        matches.stream()
+                .filter(entry -> entry.request() == request)
+                .sorted(Comparator.comparingInt(Entry::vehicleIndex)
+                        .thenComparingInt(entry -> RatingKeys.coverage(entry.coverageKey()).ordinal()))
+                .forEach(entry -> lines.add(render(entry, request.grid())));
+        return lines;
+    }
+
+    private static String render(Entry entry, PremiumGrid grid) {
+        RateTables rateTables = grid.rateTables();
+        long key = entry.coverageKey();
+        CoverageType coverageType = RatingKeys.coverage(key);
+        VehicleType vehicleType = RatingKeys.vehicleType(key);
+        int ageBand = RatingKeys.ageBand(key);
+        int territory = RatingKeys.territory(key);
+        int symbol = RatingKeys.symbol(key);
+        Limit limit = RatingKeys.limit(key);
+        Deductible deductible = RatingKeys.deductible(key);
+
+        StringBuilder line = new StringBuilder()
+                .append("vehicle[").append(entry.vehicleIndex()).append("] ")
+                .append(coverageType).append(" coverage=").append(entry.coverageLocator())
+                .append(": baseRate(").append(vehicleType).append(")=").append(factor(rateTables.baseRate(vehicleType)))
+                .append(" x driverFactor(ageBand ").append(ageBand).append(")=").append(factor(rateTables.ageFactor(ageBand)))
+                .append(" x territoryFactor(").append(territory).append(")=")
+                .append(factor(rateTables.territoryFactor(territory)))
+                .append(" x symbolFactor(").append(symbol).append(")=").append(factor(rateTables.symbolFactor(symbol)));
+        if (limit != null) {
+            line.append(" x limitFactor(").append(limit).append(")=").append(factor(rateTables.limitFactor(limit)));
+        }
+        if (deductible != null) {
+            line.append(" x deductibleFactor(").append(deductible).append(")=")
+                    .append(factor(rateTables.deductibleFactor(deductible)));
+        }
+        return line.append(" = ")
+                .append(grid.premium(coverageType, vehicleType, ageBand, limit, deductible,
+                        rateTables.vehicleFactor(territory, symbol)))
+                .toString();
+    }
+
+    private static String factor(long micros) {
+        return BigDecimal.valueOf(micros, Premium.MICRO_SCALE).stripTrailingZeros().toPlainString();
+    }
+
+    /**
+     * One rate() call's quote-wide explain inputs.
+     */
+    record Request(long id, ULID quoteLocator, ULID driverLocator, LocalDate ratingDate, PremiumGrid grid) {
+    }
+
+    private record Entry(Request request, ULID coverageLocator, int vehicleIndex, long coverageKey) {
+    }
+
+    /**
+     * One ring buffer. Writers take the ring's lock, so one slot is written at a time; explain() reads
+     * each slot without locking, under a per-slot sequence stamp, and skips slots that are being
+     * overwritten.
+     */
+    private static final class Ring {
+        private final Request[] requests;
+        private final ULID[] coverageLocators;
+        private final int[] vehicleIndexes;
+        private final long[] coverageKeys;
+        // 0 = empty, -1 = being written, otherwise the write position + 1
+        private final AtomicLongArray stamps;
+        private long position;
+
+        Ring(int capacity) {
+            this.requests = new Request[capacity];
+            this.coverageLocators = new ULID[capacity];
+            this.vehicleIndexes = new int[capacity];
+            this.coverageKeys = new long[capacity];
+            this.stamps = new AtomicLongArray(capacity);
+        }
+
+        synchronized void write(Request request, ULID coverageLocator, int vehicleIndex, long coverageKey) {
+            int slot = (int) (position % requests.length);
+            stamps.setOpaque(slot, -1);
+            VarHandle.releaseFence();
+            requests[slot] = request;
+            coverageLocators[slot] = coverageLocator;
+            vehicleIndexes[slot] = vehicleIndex;
+            coverageKeys[slot] = coverageKey;
+            stamps.setRelease(slot, ++position);
+        }
+
+        void collect(ULID locator, List<Entry> matches) {
+            for (int slot = 0; slot < requests.length; slot++) {
+                long stamp = stamps.getAcquire(slot);
+                if (stamp <= 0) {
+                    continue;
+                }
+                Request request = requests[slot];
+                ULID coverageLocator = coverageLocators[slot];
+                int vehicleIndex = vehicleIndexes[slot];
+                long coverageKey = coverageKeys[slot];
+                VarHandle.acquireFence();
+                if (stamps.getOpaque(slot) != stamp) {
+                    continue;
+                }
+                if (locator.equals(coverageLocator) || locator.equals(request.quoteLocator())) {
+                    matches.add(new Entry(request, coverageLocator, vehicleIndex, coverageKey));
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package com.socotra.deployment.customer;
+
+import com.socotra.coremodel.RatingItem;
+import com.socotra.coremodel.Vehicle;
+import com.socotra.platform.tools.ULID;
+
+/**
+ * Remembers the RatingItems last produced for each vehicle locator, with the vehicle's
+ * RatingKeys.vehicleKey and the quote's driver age band, so re-rating an endorsement copies every
+ * unchanged vehicle's RatingItems wholesale and only rates the vehicles whose inputs changed.
+ *
+ * An entry is reused only when the vehicle key and age band match, it was priced from the same
+ * PremiumGrid and the vehicle still carries the same coverage locators in the same order, so
+ * coverage changes, driver roster changes (age band) and rate table swaps all invalidate it.
+ */
+final class IncrementalRatingCache {
+    static final String CAPACITY_PROPERTY = "simpleauto.rating.incrementalCacheSize";
+
+    private final BoundedCache<ULID, Entry> entries;
+
+    IncrementalRatingCache(int capacity) {
+        this.entries = new BoundedCache<>(capacity, 64);
+    }
+
+    /**
+     * @return A cache sized by -Dsimpleauto.rating.incrementalCacheSize, or null if it is unset or 0.
+     */
+    static IncrementalRatingCache create() {
+        int capacity = Integer.getInteger(CAPACITY_PROPERTY, 0);
+        return capacity > 0 ? new IncrementalRatingCache(capacity) : null;
+    }
+
+    /**
+     * Copies a vehicle's previous RatingItems into ratingItems if nothing they depend on has changed.
+     *
+     * @param vehicle     The vehicle being rated.
+     * @param vehicleKey  The vehicle's current RatingKeys.vehicleKey.
+     * @param ageBand     The quote's driver age band.
+     * @param grid        The premium grid the request is rated against.
+     * @param ratingItems The array the vehicle's RatingItems are written to.
+     * @param offset      The index of the vehicle's first RatingItem in ratingItems.
+     * @return The vehicle's total premium in micro-units if the previous RatingItems were copied, or -1 if
+     *         the vehicle has to be rated.
+     */
+    long copyIfUnchanged(Vehicle vehicle, long vehicleKey, int ageBand, PremiumGrid grid,
+                         RatingItem[] ratingItems, int offset) {
+        Entry entry = entries.get(vehicle.locator());
+        if (entry == null || entry.vehicleKey != vehicleKey || entry.ageBand != ageBand || entry.grid != grid) {
+            return -1;
+        }
+        RatingItem[] previous = entry.ratingItems;
+        if (VehicleCoverages.count(vehicle) != previous.length) {
+            return -1;
+        }
+        boolean[] moved = {false};
+        VehicleCoverages.forEach(vehicle, 0, (position, coverageType, locator, limit, deductible) ->
+                moved[0] |= !locator.equals(previous[position].elementLocator()));
+        if (moved[0]) {
+            return -1;
+        }
+        System.arraycopy(previous, 0, ratingItems, offset, previous.length);
+        return entry.premiumMicros;
+    }
+
+    /**
+     * @param vehicle       The vehicle just rated.
+     * @param vehicleKey    The vehicle's RatingKeys.vehicleKey.
+     * @param ageBand       The quote's driver age band.
+     * @param grid          The premium grid the vehicle was rated against.
+     * @param ratingItems   The array the vehicle's RatingItems were written to.
+     * @param offset        The index of the vehicle's first RatingItem in ratingItems.
+     * @param count         The number of RatingItems the vehicle produced.
+     * @param premiumMicros The vehicle's total premium in micro-units.
+     */
+    void put(Vehicle vehicle, long vehicleKey, int ageBand, PremiumGrid grid, RatingItem[] ratingItems, int offset,
+             int count, long premiumMicros) {
+        RatingItem[] copy = new RatingItem[count];
+        System.arraycopy(ratingItems, offset, copy, 0, count);
+        entries.put(vehicle.locator(), new Entry(vehicleKey, ageBand, grid, copy, premiumMicros));
+    }
+
+    private record Entry(long vehicleKey, int ageBand, PremiumGrid grid, RatingItem[] ratingItems,
+                         long premiumMicros) {
+    }
+}
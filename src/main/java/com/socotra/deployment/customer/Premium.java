@@ -0,0 +1,111 @@
+package com.socotra.deployment.customer;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Fixed-point premium amount in micro-units (1/1,000,000 of a currency unit).
+ *
+ * Factor products are carried exactly (or rounded half-up at the sixth decimal) in a long, and
+ * rounded to currency exactly once, when the premium is converted for a RatingItem. This avoids
+ * both the cost of new BigDecimal(double) and binary artifacts such as 962.4999999999999.
+ */
+final class Premium {
+    static final int MICRO_SCALE = 6;
+    static final long MICROS_PER_UNIT = 1_000_000L;
+
+    private final long micros;
+
+    private Premium(long micros) {
+        this.micros = micros;
+    }
+
+    static Premium ofMicros(long micros) {
+        return new Premium(micros);
+    }
+
+    /**
+     * Parses a decimal amount or factor, e.g. "1.75", into micro-units.
+     *
+     * @param value The decimal string.
+     * @return The value in micro-units.
+     * @throws ArithmeticException if the value has more than six decimal places.
+     */
+    static long parseMicros(String value) {
+        return new BigDecimal(value.trim()).setScale(MICRO_SCALE, RoundingMode.UNNECESSARY).unscaledValue().longValueExact();
+    }
+
+    /**
+     * Multiplies two micro-unit values, rounding the product half-up to micro-units.
+     *
+     * @param micros       The amount in micro-units.
+     * @param factorMicros The factor in micro-units.
+     * @return The product in micro-units.
+     */
+    static long multiplyMicros(long micros, long factorMicros) {
+        long product = Math.multiplyExact(micros, factorMicros);
+        long quotient = product / MICROS_PER_UNIT;
+        long remainder = product % MICROS_PER_UNIT;
+        if (Math.abs(remainder) * 2 >= MICROS_PER_UNIT) {
+            quotient += Long.signum(product);
+        }
+        return quotient;
+    }
+
+    long micros() {
+        return micros;
+    }
+
+    /**
+     * @param factorMicros The factor to apply, in micro-units.
+     * @return This premium multiplied by the factor.
+     */
+    Premium times(long factorMicros) {
+        return new Premium(multiplyMicros(micros, factorMicros));
+    }
+
+    /**
+     * Rounds this premium half-up to the given currency scale.
+     *
+     * @param currencyScale The number of currency decimal places, e.g. 2 for USD.
+     * @return The rounded premium.
+     */
+    BigDecimal toCurrency(int currencyScale) {
+        return BigDecimal.valueOf(roundMicros(micros, currencyScale) / currencyDivisor(currencyScale), currencyScale);
+    }
+
+    /**
+     * Rounds a micro-unit amount half-up to the given currency scale, keeping it in micro-units, so
+     * rounded premiums can be summed in a long.
+     *
+     * @param micros        The amount in micro-units.
+     * @param currencyScale The number of currency decimal places, e.g. 2 for USD.
+     * @return The rounded amount in micro-units.
+     */
+    static long roundMicros(long micros, int currencyScale) {
+        long divisor = currencyDivisor(currencyScale);
+        long unscaled = micros / divisor;
+        long remainder = micros % divisor;
+        if (Math.abs(remainder) * 2 >= divisor) {
+            unscaled += Long.signum(micros);
+        }
+        return unscaled * divisor;
+    }
+
+    private static long currencyDivisor(int currencyScale) {
+        if (currencyScale < 0 || currencyScale > MICRO_SCALE) {
+            throw new IllegalArgumentException("currencyScale must be between 0 and " + MICRO_SCALE);
+        }
+
+        long divisor = 1;
+        for (int i = currencyScale; i < MICRO_SCALE; i++) {
+            divisor *= 10;
+        }
+        return divisor;
+    }
+
+    @Override
+    public String toString() {
+        return BigDecimal.valueOf(micros, MICRO_SCALE).toPlainString();
+    }
+}
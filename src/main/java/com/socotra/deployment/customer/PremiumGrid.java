@@ -0,0 +1,184 @@
+package com.socotra.deployment.customer;
+
+import com.socotra.coremodel.Deductible;
+import com.socotra.coremodel.Limit;
+
+import java.math.BigDecimal;
+
+/**
+ * Every possible coverage premium, precomputed from a RateTables snapshot and rounded to currency.
+ *
+ * A premium is BaseRate * DriverAgeFactor * [LimitFactor] * [DeductibleFactor] * VehicleFactor. All but
+ * the last come from small finite tables, so that part of the space is a few hundred entries per coverage,
+ * precomputed in fixed point. VehicleFactor (TerritoryFactor * SymbolFactor, see RateTables) is resolved
+ * once per vehicle and applied to the precomputed micro-units, since territories times symbols would grow
+ * the grid multiplicatively. For a vehicle factor of 1 the precomputed currency premium is returned as is,
+ * so rating a coverage is a single array read. Premiums for other vehicle factors are memoized in a small
+ * direct-mapped table of immutable entries, so a repeated cell and factor allocates nothing either. The
+ * grid's premiums never change and it is always paired with the tables it was built from, so swapping the
+ * grid swaps both atomically.
+ *
+ * All coverages share one flat array, addressed by a cell index. premium(...) and the columnar
+ * cells(...) kernel compute the same index, so single-quote and columnar batch rating produce
+ * identical BigDecimals.
+ */
+final class PremiumGrid {
+    static final int CURRENCY_SCALE = 2;
+
+    private static final int VEHICLE_TYPES = VehicleType.values().length;
+    private static final int LIMITS = Limit.values().length;
+    private static final int DEDUCTIBLES = Deductible.values().length;
+    // Must be a power of two, see factoredSlot
+    private static final int FACTORED_SLOTS = 4096;
+
+    private final RateTables rateTables;
+    private final int ageBands;
+    private final long[] micros;
+    private final BigDecimal[] premiums;
+    // Racy by design: entries are immutable, so a reader sees either a whole entry or a miss
+    private final FactoredPremium[] factoredPremiums = new FactoredPremium[FACTORED_SLOTS];
+    // Per coverage ordinal: the coverage's first cell, and its limit and deductible dimensions (1 if unused)
+    private final int[] coverageOffsets = new int[CoverageType.values().length];
+    private final int[] limitCounts = new int[CoverageType.values().length];
+    private final int[] deductibleCounts = new int[CoverageType.values().length];
+
+    private PremiumGrid(RateTables rateTables) {
+        this.rateTables = rateTables;
+        this.ageBands = rateTables.ageBandCount();
+
+        int cells = 0;
+        for (CoverageType coverage : CoverageType.values()) {
+            coverageOffsets[coverage.ordinal()] = cells;
+            limitCounts[coverage.ordinal()] = coverage.usesLimit() ? LIMITS : 1;
+            deductibleCounts[coverage.ordinal()] = coverage.usesDeductible() ? DEDUCTIBLES : 1;
+            cells += VEHICLE_TYPES * ageBands * limitCounts[coverage.ordinal()] * deductibleCounts[coverage.ordinal()];
+        }
+        this.micros = new long[cells];
+        this.premiums = new BigDecimal[cells];
+
+        for (CoverageType coverage : CoverageType.values()) {
+            int limits = limitCounts[coverage.ordinal()];
+            int deductibles = deductibleCounts[coverage.ordinal()];
+
+            for (VehicleType vehicleType : VehicleType.values()) {
+                for (int ageBand = 0; ageBand < ageBands; ageBand++) {
+                    for (int limit = 0; limit < limits; limit++) {
+                        for (int deductible = 0; deductible < deductibles; deductible++) {
+                            Premium rate = Premium.ofMicros(rateTables.baseRate(vehicleType))
+                                    .times(rateTables.ageFactor(ageBand));
+                            if (coverage.usesLimit()) {
+                                rate = rate.times(rateTables.limitFactor(Limit.values()[limit]));
+                            }
+                            if (coverage.usesDeductible()) {
+                                rate = rate.times(rateTables.deductibleFactor(Deductible.values()[deductible]));
+                            }
+                            int cell = cell(coverage.ordinal(), vehicleType.ordinal(), ageBand, limit, deductible);
+                            micros[cell] = rate.micros();
+                            premiums[cell] = rate.toCurrency(CURRENCY_SCALE);
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * @param rateTables The factor tables to precompute premiums from.
+     * @return A fully populated PremiumGrid.
+     */
+    static PremiumGrid build(RateTables rateTables) {
+        return new PremiumGrid(rateTables);
+    }
+
+    RateTables rateTables() {
+        return rateTables;
+    }
+
+    /**
+     * Looks up a precomputed premium.
+     *
+     * @param coverage      The coverage being rated.
+     * @param vehicleType   The vehicle's type.
+     * @param ageBand       The driver age band applied to the quote.
+     * @param limit         The coverage limit, or null if the coverage has no Limit term.
+     * @param deductible    The coverage deductible, or null if the coverage has no Deductible term.
+     * @param vehicleFactor The vehicle's territory and symbol factor in micro-units (see RateTables.vehicleFactor).
+     * @return The premium, rounded to currency.
+     */
+    BigDecimal premium(CoverageType coverage, VehicleType vehicleType, int ageBand, Limit limit,
+                       Deductible deductible, long vehicleFactor) {
+        int limitIndex = coverage.usesLimit() ? limit.ordinal() : 0;
+        int deductibleIndex = coverage.usesDeductible() ? deductible.ordinal() : 0;
+
+        int cell = cell(coverage.ordinal(), vehicleType.ordinal(), ageBand, limitIndex, deductibleIndex);
+        return premium(cell, vehicleFactor);
+    }
+
+    /**
+     * Same premium as premium(...), in micro-units, so a quote's total can be summed without allocating.
+     *
+     * @return The premium, rounded to currency, in micro-units.
+     */
+    long premiumMicros(CoverageType coverage, VehicleType vehicleType, int ageBand, Limit limit,
+                       Deductible deductible, long vehicleFactor) {
+        int limitIndex = coverage.usesLimit() ? limit.ordinal() : 0;
+        int deductibleIndex = coverage.usesDeductible() ? deductible.ordinal() : 0;
+
+        int cell = cell(coverage.ordinal(), vehicleType.ordinal(), ageBand, limitIndex, deductibleIndex);
+        long factored = vehicleFactor == Premium.MICROS_PER_UNIT
+                ? micros[cell] : Premium.multiplyMicros(micros[cell], vehicleFactor);
+        return Premium.roundMicros(factored, CURRENCY_SCALE);
+    }
+
+    /**
+     * @param cell          A cell index from cells(...).
+     * @param vehicleFactor The vehicle's territory and symbol factor in micro-units.
+     * @return The premium, rounded to currency.
+     */
+    BigDecimal premium(int cell, long vehicleFactor) {
+        if (vehicleFactor == Premium.MICROS_PER_UNIT) {
+            return premiums[cell];
+        }
+        int slot = factoredSlot(cell, vehicleFactor);
+        FactoredPremium memo = factoredPremiums[slot];
+        if (memo != null && memo.cell() == cell && memo.vehicleFactor() == vehicleFactor) {
+            return memo.premium();
+        }
+        BigDecimal premium = Premium.ofMicros(micros[cell]).times(vehicleFactor).toCurrency(CURRENCY_SCALE);
+        factoredPremiums[slot] = new FactoredPremium(cell, vehicleFactor, premium);
+        return premium;
+    }
+
+    private static int factoredSlot(int cell, long vehicleFactor) {
+        long hash = (vehicleFactor ^ (long) cell << 32) * 0x9E3779B97F4A7C15L;
+        return (int) (hash >>> (Long.SIZE - Integer.numberOfTrailingZeros(FACTORED_SLOTS)));
+    }
+
+    /**
+     * Columnar form of premium(...): computes the cell index of every row in one pass over primitive
+     * columns. Limit and deductible columns hold ordinals, or 0 for coverages without that term.
+     *
+     * @param coverages    CoverageType ordinals.
+     * @param vehicleTypes VehicleType ordinals.
+     * @param ageBands     Driver age bands.
+     * @param limits       Limit ordinals.
+     * @param deductibles  Deductible ordinals.
+     * @param cells        Receives each row's cell index.
+     * @param rows         The number of rows to compute.
+     */
+    void cells(int[] coverages, int[] vehicleTypes, int[] ageBands, int[] limits, int[] deductibles,
+               int[] cells, int rows) {
+        for (int row = 0; row < rows; row++) {
+            cells[row] = cell(coverages[row], vehicleTypes[row], ageBands[row], limits[row], deductibles[row]);
+        }
+    }
+
+    private int cell(int coverage, int vehicleType, int ageBand, int limit, int deductible) {
+        return coverageOffsets[coverage]
+                + ((vehicleType * ageBands + ageBand) * limitCounts[coverage] + limit) * deductibleCounts[coverage]
+                + deductible;
+    }
+
+    private record FactoredPremium(int cell, long vehicleFactor, BigDecimal premium) {
+    }
+}
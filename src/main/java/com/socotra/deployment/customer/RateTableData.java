@@ -0,0 +1,65 @@
+// Generated by ./gradlew generateRatingConstants from socotra-config and rating/*.properties.
+// Do not edit: change the sources and re-run the task.
+package com.socotra.deployment.customer;
+
+import com.socotra.coremodel.Deductible;
+import com.socotra.coremodel.Limit;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Built-in rate table versions, compiled from rating/*.properties so the plugin builds them
+ * from primitive literals at init instead of parsing text. Factors are in micro-units.
+ *
+ * The switches have no default branch, so the build fails if the Limit or Deductible options
+ * generated from socotra-config/coverageTerms stop matching the factors here.
+ */
+final class RateTableData {
+
+    /**
+     * Every built-in version, in effectiveDate order.
+     */
+    static final List<RateTables> VERSIONS = List.of(v2025_1());
+
+    static final RateTables CURRENT = VERSIONS.get(VERSIONS.size() - 1);
+
+    private RateTableData() {
+    }
+
+    // 2025.1.properties
+    private static RateTables v2025_1() {
+        long[] baseRates = new long[VehicleType.values().length];
+        for (VehicleType vehicleType : VehicleType.values()) {
+            baseRates[vehicleType.ordinal()] = switch (vehicleType) {
+                case Car -> 500_000_000L;
+                case Truck -> 750_000_000L;
+                case Motorcycle -> 300_000_000L;
+            };
+        }
+        long[] limitFactors = new long[Limit.values().length];
+        for (Limit limit : Limit.values()) {
+            limitFactors[limit.ordinal()] = switch (limit) {
+                case LIM_25 -> 800_000L;
+                case LIM_50 -> 1_100_000L;
+                case LIM_100 -> 2_000_000L;
+                case LIM_300 -> 5_000_000L;
+            };
+        }
+        long[] deductibleFactors = new long[Deductible.values().length];
+        for (Deductible deductible : Deductible.values()) {
+            deductibleFactors[deductible.ordinal()] = switch (deductible) {
+                case DED_100 -> 1_500_000L;
+                case DED_250 -> 1_250_000L;
+                case DED_500 -> 950_000L;
+                case DED_1000 -> 750_000L;
+                case DED_2500 -> 500_000L;
+            };
+        }
+        return RateTables.of("2025.1", LocalDate.MIN, baseRates, limitFactors, deductibleFactors,
+                new int[]{20, 25, 40, 60},
+                new long[]{2_500_000L, 1_750_000L, 1_100_000L, 750_000L, 500_000L},
+                new long[]{1_000_000L},
+                new long[]{1_000_000L});
+    }
+}
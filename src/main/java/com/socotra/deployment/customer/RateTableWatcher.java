@@ -0,0 +1,84 @@
+package com.socotra.deployment.customer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.function.Consumer;
+
+/**
+ * Watches a RateTableFile and hands each valid new version to a listener, on a daemon thread.
+ *
+ * The listener (SimpleAutoRatingPlugin.updateRateTables) publishes the new snapshot through a
+ * volatile reference, so in-flight rate() calls finish on the tables they started with. A file
+ * that fails validation is logged and ignored, leaving the current tables in place.
+ */
+final class RateTableWatcher implements AutoCloseable {
+    private final Logger logger = LoggerFactory.getLogger(getClass());
+    private final Path file;
+    private final Consumer<RateTables> listener;
+    private final WatchService watchService;
+
+    private RateTableWatcher(Path file, Consumer<RateTables> listener) throws IOException {
+        this.file = file.toAbsolutePath();
+        this.listener = listener;
+        this.watchService = FileSystems.getDefault().newWatchService();
+        this.file.getParent().register(watchService, StandardWatchEventKinds.ENTRY_CREATE,
+                StandardWatchEventKinds.ENTRY_MODIFY);
+    }
+
+    /**
+     * @param file     The rate table file to watch.
+     * @param listener Receives each new, valid RateTables.
+     * @return The running watcher.
+     */
+    static RateTableWatcher start(Path file, Consumer<RateTables> listener) throws IOException {
+        RateTableWatcher watcher = new RateTableWatcher(file, listener);
+        Thread thread = new Thread(watcher::watch, "simpleauto-rate-table-watcher");
+        thread.setDaemon(true);
+        thread.start();
+        return watcher;
+    }
+
+    private void watch() {
+        try {
+            while (true) {
+                WatchKey key = watchService.take();
+                boolean changed = false;
+                for (WatchEvent<?> event : key.pollEvents()) {
+                    changed |= file.getFileName().equals(event.context());
+                }
+                key.reset();
+
+                if (changed) {
+                    reload();
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ClosedWatchServiceException e) {
+            // closed
+        }
+    }
+
+    private void reload() {
+        try {
+            RateTables rateTables = RateTableFile.read(file);
+            listener.accept(rateTables);
+        } catch (RuntimeException e) {
+            logger.error("RateTableWatcher rejected {}, keeping current rate tables", file, e);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        watchService.close();
+    }
+}
@@ -0,0 +1,268 @@
+package com.socotra.deployment.customer;
+
+import com.socotra.coremodel.Deductible;
+import com.socotra.coremodel.Limit;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.time.LocalDate;
+import java.util.Properties;
+
+/**
+ * Immutable rating factor tables, held as primitive arrays indexed by enum ordinal
+ * (VehicleType, Limit, Deductible) or driver age band. Rates and factors are stored as
+ * fixed-point micro-units (see Premium), parsed exactly from the decimal source.
+ *
+ * Tables are parsed and validated once, so every configured option is guaranteed a factor and
+ * lookups on the rating path are plain array reads.
+ *
+ * Territory factors (territory.factor) and vehicle symbol factors (symbol.factor) are optional; without
+ * them every vehicle is in territory 0 and symbol 0 with a factor of 1.
+ *
+ * Each table version applies to quotes starting on or after its effective date, until the next
+ * version's effective date (see RateVersions). A version without an effective date applies from
+ * LocalDate.MIN.
+ */
+final class RateTables {
+    // Territories and vehicle symbols are packed into a byte in RatingKeys and their index files
+    static final int MAX_TERRITORIES = 256;
+    static final int MAX_SYMBOLS = 256;
+
+    private final String version;
+    private final LocalDate effectiveDate;
+    private final long[] baseRates;
+    private final long[] limitFactors;
+    private final long[] deductibleFactors;
+    private final int[] ageBandMaxAges;
+    private final long[] ageFactors;
+    private final long[] territoryFactors;
+    private final long[] symbolFactors;
+    private final int minAgeFactorBand;
+    private final long maxAgeFactor;
+
+    private RateTables(String version, LocalDate effectiveDate, long[] baseRates, long[] limitFactors,
+                       long[] deductibleFactors, int[] ageBandMaxAges, long[] ageFactors, long[] territoryFactors,
+                       long[] symbolFactors) {
+        this.version = version;
+        this.effectiveDate = effectiveDate;
+        this.baseRates = baseRates;
+        this.limitFactors = limitFactors;
+        this.deductibleFactors = deductibleFactors;
+        this.ageBandMaxAges = ageBandMaxAges;
+        this.ageFactors = ageFactors;
+        this.territoryFactors = territoryFactors;
+        this.symbolFactors = symbolFactors;
+
+        int minBand = 0;
+        long max = ageFactors[0];
+        for (int band = 1; band < ageFactors.length; band++) {
+            if (ageFactors[band] < ageFactors[minBand]) {
+                minBand = band;
+            }
+            max = Math.max(max, ageFactors[band]);
+        }
+        this.minAgeFactorBand = minBand;
+        this.maxAgeFactor = max;
+    }
+
+    /**
+     * Builds tables from primitive arrays, e.g. decoded from a RateTableFile.
+     *
+     * @param version           The table version label.
+     * @param effectiveDate     The first quote start date the tables apply to.
+     * @param baseRates         Base rates in micro-units, indexed by VehicleType ordinal.
+     * @param limitFactors      Limit factors in micro-units, indexed by Limit ordinal.
+     * @param deductibleFactors Deductible factors in micro-units, indexed by Deductible ordinal.
+     * @param ageBandMaxAges    Ascending inclusive max age of every age band but the last.
+     * @param ageFactors        Age factors in micro-units, one per age band.
+     * @param territoryFactors  Territory factors in micro-units, indexed by territory (see TerritoryIndex).
+     * @param symbolFactors     Vehicle symbol factors in micro-units, indexed by symbol (see VehicleSymbolIndex).
+     * @return The validated RateTables.
+     * @throws RuntimeException if any table doesn't cover every option.
+     */
+    static RateTables of(String version, LocalDate effectiveDate, long[] baseRates, long[] limitFactors,
+                         long[] deductibleFactors, int[] ageBandMaxAges, long[] ageFactors,
+                         long[] territoryFactors, long[] symbolFactors) {
+        requireLength("baseRate", baseRates.length, VehicleType.values().length);
+        requireLength("limit", limitFactors.length, Limit.values().length);
+        requireLength("deductible", deductibleFactors.length, Deductible.values().length);
+        requireLength("ageBand.factor", ageFactors.length, ageBandMaxAges.length + 1);
+        for (int i = 1; i < ageBandMaxAges.length; i++) {
+            if (ageBandMaxAges[i] <= ageBandMaxAges[i - 1]) {
+                throw new RuntimeException("RateTables invalid: ageBand.maxAge must be ascending");
+            }
+        }
+        requireCount("territory.factor", territoryFactors.length, MAX_TERRITORIES);
+        requireCount("symbol.factor", symbolFactors.length, MAX_SYMBOLS);
+
+        return new RateTables(version, effectiveDate, baseRates.clone(), limitFactors.clone(),
+                deductibleFactors.clone(), ageBandMaxAges.clone(), ageFactors.clone(), territoryFactors.clone(),
+                symbolFactors.clone());
+    }
+
+    private static void requireCount(String table, int count, int max) {
+        if (count == 0 || count > max) {
+            throw new RuntimeException("RateTables invalid: expected 1 to " + max + " " + table
+                    + " values, found " + count);
+        }
+    }
+
+    private static void requireLength(String table, int length, int expected) {
+        if (length != expected) {
+            throw new RuntimeException("RateTables invalid: expected " + expected + " " + table
+                    + " values, found " + length);
+        }
+    }
+
+    /**
+     * Parses a properties-format table definition (see rating/*.properties).
+     *
+     * @param source The table definition text.
+     * @return The parsed RateTables.
+     * @throws RuntimeException if the definition is malformed or any option is missing a factor.
+     */
+    static RateTables parse(String source) {
+        Properties properties = new Properties();
+        try {
+            properties.load(new StringReader(source));
+        } catch (IOException e) {
+            throw new RuntimeException("RateTables parse failed!", e);
+        }
+
+        String version = require(properties, "version");
+        String effectiveDate = properties.getProperty("effectiveDate");
+
+        long[] baseRates = new long[VehicleType.values().length];
+        for (VehicleType type : VehicleType.values()) {
+            baseRates[type.ordinal()] = parseFactor(properties, "baseRate." + type.name());
+        }
+
+        long[] limitFactors = new long[Limit.values().length];
+        for (Limit limit : Limit.values()) {
+            limitFactors[limit.ordinal()] = parseFactor(properties, "limit." + limit.name());
+        }
+
+        long[] deductibleFactors = new long[Deductible.values().length];
+        for (Deductible deductible : Deductible.values()) {
+            deductibleFactors[deductible.ordinal()] = parseFactor(properties, "deductible." + deductible.name());
+        }
+
+        String[] maxAges = require(properties, "ageBand.maxAge").split(",");
+        String[] factors = require(properties, "ageBand.factor").split(",");
+        int[] ageBandMaxAges = new int[maxAges.length];
+        for (int i = 0; i < maxAges.length; i++) {
+            ageBandMaxAges[i] = Integer.parseInt(maxAges[i].trim());
+        }
+
+        long[] ageFactors = new long[factors.length];
+        for (int i = 0; i < factors.length; i++) {
+            ageFactors[i] = Premium.parseMicros(factors[i]);
+        }
+
+        long[] territoryFactors = parseOptionalFactors(properties, "territory.factor");
+        long[] symbolFactors = parseOptionalFactors(properties, "symbol.factor");
+
+        return of(version, effectiveDate == null ? LocalDate.MIN : LocalDate.parse(effectiveDate.trim()),
+                baseRates, limitFactors, deductibleFactors, ageBandMaxAges, ageFactors, territoryFactors, symbolFactors);
+    }
+
+    private static String require(Properties properties, String key) {
+        String value = properties.getProperty(key);
+        if (value == null || value.isBlank()) {
+            throw new RuntimeException("RateTables parse failed: missing " + key);
+        }
+        return value.trim();
+    }
+
+    private static long parseFactor(Properties properties, String key) {
+        return Premium.parseMicros(require(properties, key));
+    }
+
+    /**
+     * @return The comma-separated factors under key, or a single factor of 1 if the key is absent.
+     */
+    private static long[] parseOptionalFactors(Properties properties, String key) {
+        String value = properties.getProperty(key);
+        if (value == null || value.isBlank()) {
+            return new long[]{Premium.MICROS_PER_UNIT};
+        }
+        String[] values = value.trim().split(",");
+        long[] factors = new long[values.length];
+        for (int i = 0; i < values.length; i++) {
+            factors[i] = Premium.parseMicros(values[i]);
+        }
+        return factors;
+    }
+
+    String version() {
+        return version;
+    }
+
+    LocalDate effectiveDate() {
+        return effectiveDate;
+    }
+
+    long baseRate(VehicleType vehicleType) {
+        return baseRates[vehicleType.ordinal()];
+    }
+
+    long limitFactor(Limit limit) {
+        return limitFactors[limit.ordinal()];
+    }
+
+    long deductibleFactor(Deductible deductible) {
+        return deductibleFactors[deductible.ordinal()];
+    }
+
+    int ageBandCount() {
+        return ageFactors.length;
+    }
+
+    /**
+     * @param ageBand The index of any age band but the last.
+     * @return The oldest age, inclusive, in that band.
+     */
+    int ageBandMaxAge(int ageBand) {
+        return ageBandMaxAges[ageBand];
+    }
+
+    long ageFactor(int ageBand) {
+        return ageFactors[ageBand];
+    }
+
+    /**
+     * @return The age band with the lowest factor, used when a policy has no drivers.
+     */
+    int minAgeFactorBand() {
+        return minAgeFactorBand;
+    }
+
+    long maxAgeFactor() {
+        return maxAgeFactor;
+    }
+
+    int territoryCount() {
+        return territoryFactors.length;
+    }
+
+    long territoryFactor(int territory) {
+        return territoryFactors[territory];
+    }
+
+    int symbolCount() {
+        return symbolFactors.length;
+    }
+
+    long symbolFactor(int symbol) {
+        return symbolFactors[symbol];
+    }
+
+    /**
+     * @param territory The vehicle's territory.
+     * @param symbol    The vehicle's symbol.
+     * @return TerritoryFactor * SymbolFactor in micro-units, applied to every coverage on the vehicle.
+     */
+    long vehicleFactor(int territory, int symbol) {
+        return Premium.multiplyMicros(territoryFactors[territory], symbolFactors[symbol]);
+    }
+}
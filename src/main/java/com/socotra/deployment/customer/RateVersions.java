@@ -0,0 +1,93 @@
+package com.socotra.deployment.customer;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+
+/**
+ * Immutable index of rate table versions (as PremiumGrids) sorted by effective date.
+ *
+ * select() finds the version in force on a date by binary search, O(log versions) with no
+ * allocation, after first checking the version the previous lookup landed on, since consecutive
+ * quotes usually start in the same rate period. Dates before the earliest version use the earliest.
+ */
+final class RateVersions {
+    private final long[] effectiveEpochDays;
+    private final PremiumGrid[] grids;
+
+    // Racy hint shared across threads; any stale value is still a valid index
+    private int lastHit;
+
+    private RateVersions(long[] effectiveEpochDays, PremiumGrid[] grids) {
+        this.effectiveEpochDays = effectiveEpochDays;
+        this.grids = grids;
+    }
+
+    /**
+     * @param grid The only version.
+     * @return An index holding that version.
+     */
+    static RateVersions of(PremiumGrid grid) {
+        return new RateVersions(new long[]{effectiveEpochDay(grid)}, new PremiumGrid[]{grid});
+    }
+
+    /**
+     * @param grid The version to add.
+     * @return A new index with the version added, replacing any version with the same effective date.
+     */
+    RateVersions with(PremiumGrid grid) {
+        long effectiveEpochDay = effectiveEpochDay(grid);
+        int index = Arrays.binarySearch(effectiveEpochDays, effectiveEpochDay);
+        if (index >= 0) {
+            PremiumGrid[] replaced = grids.clone();
+            replaced[index] = grid;
+            return new RateVersions(effectiveEpochDays, replaced);
+        }
+
+        int insert = -index - 1;
+        long[] days = new long[effectiveEpochDays.length + 1];
+        PremiumGrid[] inserted = new PremiumGrid[grids.length + 1];
+        System.arraycopy(effectiveEpochDays, 0, days, 0, insert);
+        System.arraycopy(grids, 0, inserted, 0, insert);
+        days[insert] = effectiveEpochDay;
+        inserted[insert] = grid;
+        System.arraycopy(effectiveEpochDays, insert, days, insert + 1, effectiveEpochDays.length - insert);
+        System.arraycopy(grids, insert, inserted, insert + 1, grids.length - insert);
+        return new RateVersions(days, inserted);
+    }
+
+    /**
+     * @param date A quote's start date.
+     * @return The PremiumGrid of the rate version in force on that date.
+     */
+    PremiumGrid select(LocalDate date) {
+        long day = date.toEpochDay();
+
+        int hint = lastHit;
+        if (covers(hint, day)) {
+            return grids[hint];
+        }
+
+        int index = Arrays.binarySearch(effectiveEpochDays, day);
+        if (index < 0) {
+            index = Math.max(0, -index - 2);
+        }
+        lastHit = index;
+        return grids[index];
+    }
+
+    /**
+     * @return The version with the latest effective date.
+     */
+    PremiumGrid latest() {
+        return grids[grids.length - 1];
+    }
+
+    private boolean covers(int index, long day) {
+        return (index == 0 || effectiveEpochDays[index] <= day)
+                && (index == effectiveEpochDays.length - 1 || day < effectiveEpochDays[index + 1]);
+    }
+
+    private static long effectiveEpochDay(PremiumGrid grid) {
+        return grid.rateTables().effectiveDate().toEpochDay();
+    }
+}
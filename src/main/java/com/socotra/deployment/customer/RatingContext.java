@@ -0,0 +1,98 @@
+package com.socotra.deployment.customer;
+
+/**
+ * Per-request rating state, resolved once in rate() and shared by every coverage rater.
+ *
+ * Holds the PremiumGrid snapshot the request is rated against, plus the inputs that depend on the
+ * whole quote (the highest driver age band) or on a single vehicle (vehicle type, territory, symbol), so
+ * each coverage only has to supply its own coverage terms. The only mutable state is the quote's total
+ * premium, which rateVehicles records once every vehicle is rated, on the request thread.
+ */
+final class RatingContext {
+    private final PremiumGrid premiumGrid;
+    private final int highestDriverAgeBand;
+    private final VehicleType[] vehicleTypes;
+    private final int[] territories;
+    private final int[] symbols;
+    private final long[] vehicleFactors;
+    private final ExplainTrace.Request explain;
+    private long totalPremiumMicros;
+
+    /**
+     * @param premiumGrid          The premium grid (and its rate tables) used for the whole request.
+     * @param highestDriverAgeBand The age band with the highest factor among all drivers on the policy.
+     * @param vehicleTypes         Vehicle types indexed by the vehicle's position in the policy.
+     * @param territories          Territories indexed by the vehicle's position in the policy.
+     * @param symbols              Vehicle symbols indexed by the vehicle's position in the policy.
+     * @param explain              The request's ExplainTrace handle, or null if explain tracing is off.
+     *                             The context takes ownership of the arrays, which must not be modified afterwards.
+     */
+    RatingContext(PremiumGrid premiumGrid, int highestDriverAgeBand, VehicleType[] vehicleTypes, int[] territories,
+                  int[] symbols, ExplainTrace.Request explain) {
+        this.premiumGrid = premiumGrid;
+        this.highestDriverAgeBand = highestDriverAgeBand;
+        this.vehicleTypes = vehicleTypes;
+        this.territories = territories;
+        this.symbols = symbols;
+        this.vehicleFactors = new long[territories.length];
+        for (int i = 0; i < vehicleFactors.length; i++) {
+            vehicleFactors[i] = premiumGrid.rateTables().vehicleFactor(territories[i], symbols[i]);
+        }
+        this.explain = explain;
+    }
+
+    PremiumGrid premiumGrid() {
+        return premiumGrid;
+    }
+
+    int highestDriverAgeBand() {
+        return highestDriverAgeBand;
+    }
+
+    /**
+     * @param vehicleIndex The vehicle's position in the policy's vehicle list.
+     * @return The vehicle type resolved for that vehicle.
+     */
+    VehicleType vehicleType(int vehicleIndex) {
+        return vehicleTypes[vehicleIndex];
+    }
+
+    /**
+     * @param vehicleIndex The vehicle's position in the policy's vehicle list.
+     * @return The territory resolved for that vehicle.
+     */
+    int territory(int vehicleIndex) {
+        return territories[vehicleIndex];
+    }
+
+    /**
+     * @param vehicleIndex The vehicle's position in the policy's vehicle list.
+     * @return The vehicle symbol resolved for that vehicle.
+     */
+    int symbol(int vehicleIndex) {
+        return symbols[vehicleIndex];
+    }
+
+    /**
+     * @param vehicleIndex The vehicle's position in the policy's vehicle list.
+     * @return The vehicle's territory and symbol factor in micro-units.
+     */
+    long vehicleFactor(int vehicleIndex) {
+        return vehicleFactors[vehicleIndex];
+    }
+
+    ExplainTrace.Request explain() {
+        return explain;
+    }
+
+    /**
+     * @return The sum of every RatingItem's premium in micro-units, once rateVehicles has recorded it.
+     */
+    long totalPremiumMicros() {
+        return totalPremiumMicros;
+    }
+
+    void recordTotalPremium(long totalPremiumMicros) {
+        this.totalPremiumMicros = totalPremiumMicros;
+    }
+}
@@ -0,0 +1,35 @@
+package com.socotra.deployment.customer;
+
+import java.util.Map;
+
+/**
+ * JMX view of a plugin's RatingMetrics, registered as
+ * com.socotra.deployment.customer:type=SimpleAutoRatingMetrics.
+ *
+ * Each histogram is summarized as count, mean, p50, p90, p99, p999 and max.
+ */
+public interface RatingMetricsMXBean {
+    long getQuoteCount();
+
+    long getVehicleCount();
+
+    long getCoverageCount();
+
+    long getLookupFailureCount();
+
+    /**
+     * @return rate() summaries dropped because the async RatingLog queue was full.
+     */
+    long getDroppedSummaryCount();
+
+    Map<String, Long> getQuoteLatencyNanos();
+
+    Map<String, Long> getVehicleRatingLatencyNanos();
+
+    /**
+     * @return Latency summaries keyed by CoverageType.
+     */
+    Map<String, Map<String, Long>> getCoverageLatencyNanos();
+
+    Map<String, Long> getQuoteSizeVehicles();
+}
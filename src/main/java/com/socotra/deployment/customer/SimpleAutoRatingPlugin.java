@@ -1,258 +1,722 @@
 package com.socotra.deployment.customer;
 
 import com.socotra.coremodel.*;
+import com.socotra.platform.tools.ULID;
 
-import java.math.BigDecimal;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Instant;
 import java.time.LocalDate;
-import java.time.Period;
-import java.util.ArrayList;
+import java.time.ZoneId;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 
 public class SimpleAutoRatingPlugin implements RatePlugin {
+    static final String RATE_TABLE_FILE_PROPERTY = "simpleauto.rating.tableFile";
+    static final String TERRITORY_FILE_PROPERTY = "simpleauto.rating.territoryFile";
+    static final String VEHICLE_SYMBOL_FILE_PROPERTY = "simpleauto.rating.vehicleSymbolFile";
+    static final String PARALLELISM_PROPERTY = "simpleauto.rating.parallelism";
+    static final String PARALLEL_VEHICLE_THRESHOLD_PROPERTY = "simpleauto.rating.parallelVehicleThreshold";
+    static final int DEFAULT_PARALLEL_VEHICLE_THRESHOLD = 200;
+    static final String FLEET_GROUPING_THRESHOLD_PROPERTY = "simpleauto.rating.fleetGroupingThreshold";
+    static final int DEFAULT_FLEET_GROUPING_THRESHOLD = 16;
+    // defaultTimeZone from socotra-config/config.json
+    static final ZoneId RATING_ZONE = ZoneId.of("America/New_York");
+
     private final Logger logger = LoggerFactory.getLogger(getClass());
+    private final RatingMetrics ratingMetrics = RatingMetrics.create(logger);
+    private final RatingLog ratingLog = RatingLog.create(logger, ratingMetrics);
+    private volatile RateVersions rateVersions = builtInRateVersions();
+    private final IncrementalRatingCache incrementalRatingCache = IncrementalRatingCache.create();
+    private final QuoteRatingCache quoteRatingCache = QuoteRatingCache.create();
+    private final ExplainTrace explainTrace = ExplainTrace.create();
+    private final AgeBandCutoffsCache ageBandCutoffs = new AgeBandCutoffsCache();
+    private final ThreadLocal<CoverageRater> coverageRaters = ThreadLocal.withInitial(CoverageRater::new);
+    private final int parallelVehicleThreshold =
+            Integer.getInteger(PARALLEL_VEHICLE_THRESHOLD_PROPERTY, DEFAULT_PARALLEL_VEHICLE_THRESHOLD);
+    private final int fleetGroupingThreshold =
+            Integer.getInteger(FLEET_GROUPING_THRESHOLD_PROPERTY, DEFAULT_FLEET_GROUPING_THRESHOLD);
+    private volatile ForkJoinPool ratingPool;
+    private final Clock clock;
+    private final TerritoryIndex territoryIndex;
+    private final VehicleSymbolIndex vehicleSymbolIndex;
+
+    /**
+     * Rates each quote as of its effective date.
+     */
+    public SimpleAutoRatingPlugin() {
+        this(null);
+    }
+
+    /**
+     * Rates every quote as of the clock's current date instead of its effective date,
+     * e.g. to reproduce a back-dated re-rate.
+     *
+     * If -Dsimpleauto.rating.tableFile names a RateTableFile, its tables are added to the built-in
+     * RateTableData versions (replacing any with the same effective date) and the file is watched so
+     * new versions go live without a redeploy. If -Dsimpleauto.rating.territoryFile names a TerritoryIndex
+     * source, vehicles are rated in the territory their garaging ZIP maps to. If
+     * -Dsimpleauto.rating.vehicleSymbolFile names a VehicleSymbolIndex file, vehicles are rated by the symbol
+     * their VIN (or make, model and year) maps to.
+     *
+     * @param clock The rating clock, or null to use each quote's effective date.
+     */
+    SimpleAutoRatingPlugin(Clock clock) {
+        this.clock = clock;
+        this.territoryIndex = loadTerritoryIndex(System.getProperty(TERRITORY_FILE_PROPERTY));
+        this.vehicleSymbolIndex = loadVehicleSymbolIndex(System.getProperty(VEHICLE_SYMBOL_FILE_PROPERTY));
+
+        String rateTableFile = System.getProperty(RATE_TABLE_FILE_PROPERTY);
+        if (rateTableFile != null) {
+            this.loadRateTableFile(Path.of(rateTableFile));
+        }
+    }
+
+    private static RateVersions builtInRateVersions() {
+        RateVersions versions = null;
+        for (RateTables rateTables : RateTableData.VERSIONS) {
+            PremiumGrid grid = PremiumGrid.build(rateTables);
+            versions = versions == null ? RateVersions.of(grid) : versions.with(grid);
+        }
+        return versions;
+    }
+
+    private TerritoryIndex loadTerritoryIndex(String territoryFile) {
+        if (territoryFile == null) {
+            return TerritoryIndex.EMPTY;
+        }
+        try {
+            long start = System.nanoTime();
+            TerritoryIndex index = TerritoryIndex.read(Path.of(territoryFile));
+            logger.info("Loaded territory file {} with {} ZIPs in {} ms", territoryFile, index.size(),
+                    (System.nanoTime() - start) / 1_000_000);
+            return index;
+        } catch (RuntimeException e) {
+            logger.error("Failed to load territory file {}, rating every vehicle in territory 0", territoryFile, e);
+            return TerritoryIndex.EMPTY;
+        }
+    }
+
+    private VehicleSymbolIndex loadVehicleSymbolIndex(String vehicleSymbolFile) {
+        if (vehicleSymbolFile == null) {
+            return VehicleSymbolIndex.EMPTY;
+        }
+        try {
+            long start = System.nanoTime();
+            VehicleSymbolIndex index = VehicleSymbolIndex.open(Path.of(vehicleSymbolFile));
+            logger.info("Mapped vehicle symbol file {} with {} VIN prefixes and {} make/models in {} ms",
+                    vehicleSymbolFile, index.vinRecords(), index.makeModelRecords(),
+                    (System.nanoTime() - start) / 1_000_000);
+            return index;
+        } catch (RuntimeException e) {
+            logger.error("Failed to load vehicle symbol file {}, rating every vehicle as symbol 0", vehicleSymbolFile, e);
+            return VehicleSymbolIndex.EMPTY;
+        }
+    }
+
+    private void loadRateTableFile(Path path) {
+        try {
+            this.updateRateTables(RateTableFile.read(path));
+        } catch (RuntimeException e) {
+            logger.error("Failed to load rate table file {}, using built-in rate tables version={}",
+                    path, this.rateVersions.latest().rateTables().version(), e);
+        }
+
+        try {
+            RateTableWatcher.start(path, this::updateRateTables);
+        } catch (IOException e) {
+            logger.error("Failed to watch rate table file {}, rate tables will not reload", path, e);
+        }
+    }
 
 /**
  * REQUEST RATING:
  * rate(request) will be called by the platform when Price Quote/Transaction is called
+ *
+ * With -Dsimpleauto.rating.quoteCacheSize set, quotes whose rating inputs were rated recently are
+ * answered from a QuoteRatingCache without being rated or logged again.
  */
     /**
      * Plugin entrypoint to rate Quote Requests
      */
     @Override
     public RatingSet rate(SimpleAutoQuoteRequest request) {
-        logger.info("rate({}) request={}", request.getClass(), request);
-
-        SimpleAutoQuote quote = request.quote();
-        logger.info("quote={}", quote);
+        return this.rate(request, this.rateVersions);
+    }
 
-        RatingSet ratingSet = RatingSet.builder()
-                .ok(true)
-                .addRatingItems(this.rateVehicles(quote))
-                .build();
+    /**
+     * @return A point-in-time copy of this plugin's rating counters and latency and quote size histograms.
+     *         The same metrics are published over JMX, see RatingMetrics.
+     */
+    public RatingMetrics.Snapshot metricsSnapshot() {
+        return ratingMetrics.snapshot();
+    }
 
-        logger.info("ratingSet={}", ratingSet);
-        return ratingSet;
+    /**
+     * Explains the most recent rating of a quote or coverage: the rate tables and driver used, then each
+     * RatingItem's base rate, driver age factor, and limit and deductible factors.
+     *
+     * Requires -Dsimpleauto.rating.explain.capacity, the number of coverages remembered per rating thread.
+     *
+     * @param locator A quote or coverage locator.
+     * @return The explanation, one line per RatingItem after a quote line, or an empty list if explain
+     *         tracing is off or the locator is no longer remembered.
+     */
+    public List<String> explain(ULID locator) {
+        return explainTrace == null ? List.of() : explainTrace.explain(locator);
     }
 
-    // =============================
-    // VEHICLE RATING METHODS
-    // =============================
+    /**
+     * @return The quote cache's hit, miss and expiration counts, or null if -Dsimpleauto.rating.quoteCacheSize
+     *         is unset.
+     */
+    QuoteRatingCache.Stats quoteCacheStats() {
+        return quoteRatingCache == null ? null : quoteRatingCache.stats();
+    }
 
     /**
-     * Calculates rates for all vehicles within the given policy.
+     * Rates a batch of Quote Requests, e.g. a renewal or re-rate run, on a bounded work-stealing pool.
+     * Every request in the batch is rated against the same snapshot of rate table versions, even if
+     * tables are reloaded mid-batch. A request that fails to rate is reported in its result without
+     * failing the rest of the batch.
      *
-     * @param policy The auto policy containing vehicles.
-     * @return A list of RatingItem objects for each vehicle's coverages.
+     * The pool's parallelism defaults to the number of available processors and can be set with
+     * -Dsimpleauto.rating.parallelism.
+     *
+     * @param requests The Quote Requests to rate.
+     * @return One BatchRatingResult per request, in the order given.
      */
-    private List<RatingItem> rateVehicles(SimpleAuto policy) {
-        logger.info("Entering rateVehicles with policy containing {} vehicles", policy.vehicles().size());
+    public List<BatchRatingResult> rateBatch(Collection<SimpleAutoQuoteRequest> requests) {
+        SimpleAutoQuoteRequest[] batch = requests.toArray(new SimpleAutoQuoteRequest[0]);
+        BatchRatingResult[] results = new BatchRatingResult[batch.length];
 
-        List<RatingItem> allVehicleRates = new ArrayList<>();
+        RateVersions versions = this.rateVersions;
 
-        for (Vehicle vehicle : policy.vehicles()) {
-            logger.info("Processing vehicle: {}", vehicle);
-            allVehicleRates.addAll(rateVehicleCoverages(vehicle, policy));
-        }
+        this.ratingPool().submit(() -> IntStream.range(0, batch.length)
+                .parallel()
+                .forEach(i -> results[i] = this.rateBatchItem(batch[i], versions)))
+                .join();
 
-        logger.info("Exiting rateVehicles with {} rating items", allVehicleRates.size());
-        return allVehicleRates;
+        return List.of(results);
     }
 
     /**
-     * Calculates rates for each coverage available on a vehicle.
+     * Stream variant of {@link #rateBatch(Collection)}.
      *
-     * @param vehicle The vehicle whose coverages are being rated.
-     * @param policy  The policy context (includes drivers and other details).
-     * @return A list of RatingItem objects representing the vehicle's coverages.
+     * @param requests The Quote Requests to rate.
+     * @return One BatchRatingResult per request, in encounter order.
      */
-    private List<RatingItem> rateVehicleCoverages(Vehicle vehicle, SimpleAuto policy) {
-        logger.info("Entering rateVehicleCoverages for vehicle: {}", vehicle);
-
-        List<RatingItem> coverageRates = new ArrayList<>();
-
-        coverageRates.add(this.rateBodilyInjury(vehicle, vehicle.bodilyInjury(), policy));
-        coverageRates.add(this.ratePropertyDamage(vehicle, vehicle.propertyDamage(), policy));
+    public List<BatchRatingResult> rateBatch(Stream<SimpleAutoQuoteRequest> requests) {
+        return this.rateBatch(requests.collect(Collectors.toList()));
+    }
 
-        if (vehicle.collision() != null) {
-            coverageRates.add(this.rateCollision(vehicle, vehicle.collision(), policy));
+    /**
+     * Columnar variant of {@link #rateBatch(Collection)} for portfolio-scale re-rating.
+     *
+     * Quotes are flattened into primitive columns (coverage type, vehicle type, driver age band, limit
+     * and deductible) per premium grid. Every row is then priced in one pass and the rows are mapped back
+     * to each quote's RatingItems, in the same order and with the same premiums as rate(). The rating
+     * metrics, explain trace and incremental cache are not applied. A request that fails to flatten is
+     * reported in its result without failing the rest of the batch.
+     *
+     * @param requests The Quote Requests to rate.
+     * @return One BatchRatingResult per request, in the order given.
+     */
+    public List<BatchRatingResult> rateBatchColumnar(Collection<SimpleAutoQuoteRequest> requests) {
+        SimpleAutoQuoteRequest[] batch = requests.toArray(new SimpleAutoQuoteRequest[0]);
+        BatchRatingResult[] results = new BatchRatingResult[batch.length];
+        ColumnarRatingKernel[] quoteKernels = new ColumnarRatingKernel[batch.length];
+        int[] firstRows = new int[batch.length];
+        int[] rowCounts = new int[batch.length];
+        Map<PremiumGrid, ColumnarRatingKernel> kernels = new IdentityHashMap<>();
+
+        RateVersions versions = this.rateVersions;
+        for (int i = 0; i < batch.length; i++) {
+            SimpleAutoQuoteRequest request = batch[i];
+            try {
+                SimpleAutoQuote quote = request.quote();
+                LocalDate effectiveDate = this.resolveEffectiveDate(quote);
+                PremiumGrid grid = versions.select(effectiveDate);
+                LocalDate ratingDate = clock != null ? LocalDate.now(clock) : effectiveDate;
+                int ageBand = this.lookupHighestDriverAgeBand(quote, ratingDate, grid.rateTables());
+
+                List<Vehicle> vehicles = quote.vehicles();
+                VehicleType[] vehicleTypes = new VehicleType[vehicles.size()];
+                long[] vehicleFactors = new long[vehicles.size()];
+                for (int v = 0; v < vehicleTypes.length; v++) {
+                    vehicleTypes[v] = this.lookupVehicleType(vehicles.get(v));
+                    vehicleFactors[v] = grid.rateTables().vehicleFactor(
+                            this.lookupTerritory(quote, vehicles.get(v), grid.rateTables()),
+                            this.lookupVehicleSymbol(vehicles.get(v), grid.rateTables()));
+                }
+
+                ColumnarRatingKernel kernel = kernels.computeIfAbsent(grid,
+                        g -> new ColumnarRatingKernel(g, batch.length * 2));
+                firstRows[i] = kernel.rows();
+                for (int v = 0; v < vehicleTypes.length; v++) {
+                    addVehicleCoverages(kernel, vehicles.get(v), vehicleTypes[v], ageBand, vehicleFactors[v]);
+                }
+                rowCounts[i] = kernel.rows() - firstRows[i];
+                quoteKernels[i] = kernel;
+            } catch (RuntimeException e) {
+                logger.error("rateBatchColumnar failed for quote={}", request.quote() == null ? null : request.quote().locator(), e);
+                results[i] = BatchRatingResult.failure(request, e);
+            }
         }
 
-        if (vehicle.comprehensive() != null) {
-            coverageRates.add(this.rateComprehensive(vehicle, vehicle.comprehensive(), policy));
+        for (ColumnarRatingKernel kernel : kernels.values()) {
+            kernel.price();
         }
 
-        if (vehicle.uninsuredMotorist() != null) {
-            coverageRates.add(this.rateUninsuredMotorist(vehicle, vehicle.uninsuredMotorist(), policy));
+        for (int i = 0; i < batch.length; i++) {
+            if (results[i] != null) {
+                continue;
+            }
+            RatingItem[] ratingItems = new RatingItem[rowCounts[i]];
+            for (int row = 0; row < ratingItems.length; row++) {
+                ratingItems[row] = quoteKernels[i].ratingItem(firstRows[i] + row);
+            }
+            results[i] = BatchRatingResult.success(batch[i], RatingSet.builder()
+                    .ok(true)
+                    .addRatingItems(Arrays.asList(ratingItems))
+                    .build());
         }
+        return List.of(results);
+    }
 
-        logger.info("Exiting rateVehicleCoverages with {} rating items", coverageRates.size());
-        return coverageRates;
+    /**
+     * Adds a vehicle's coverages to a columnar batch, in the same order as rateVehicleCoverages.
+     */
+    private static void addVehicleCoverages(ColumnarRatingKernel kernel, Vehicle vehicle, VehicleType vehicleType,
+                                            int ageBand, long vehicleFactor) {
+        VehicleCoverages.forEach(vehicle, 0, (position, coverageType, locator, limit, deductible) ->
+                kernel.add(locator, coverageType, vehicleType, ageBand, limit, deductible, vehicleFactor));
     }
 
-    // =============================
-    // COVERAGE RATING METHODS
-    // =============================
+    private BatchRatingResult rateBatchItem(SimpleAutoQuoteRequest request, RateVersions versions) {
+        try {
+            return BatchRatingResult.success(request, this.rate(request, versions));
+        } catch (RuntimeException e) {
+            logger.error("rateBatch failed for quote={}", request.quote() == null ? null : request.quote().locator(), e);
+            return BatchRatingResult.failure(request, e);
+        }
+    }
 
-/**
- * COVERAGE RATING:
- *
- * Each coverage looks up a BaseRate by vehicle type, then multiplies it by a number
- * of factors: HighestDriverFactor determined by driver age, and limit and deductible factors
- * determined by the coverageTerms available on that particular coverage.
- */
+    /**
+     * The bounded work-stealing pool shared by batch rating and parallel vehicle rating.
+     */
+    private ForkJoinPool ratingPool() {
+        ForkJoinPool pool = this.ratingPool;
+        if (pool == null) {
+            synchronized (this) {
+                pool = this.ratingPool;
+                if (pool == null) {
+                    int parallelism = Integer.getInteger(PARALLELISM_PROPERTY, Runtime.getRuntime().availableProcessors());
+                    pool = new ForkJoinPool(Math.max(1, parallelism));
+                    this.ratingPool = pool;
+                }
+            }
+        }
+        return pool;
+    }
 
     /**
-     * Calculates rate for Bodily Injury coverage.
-     * Formula: BaseRate * DriverAgeFactor * LimitFactor
-     *
-     * @param vehicle  The vehicle being rated.
-     * @param coverage The Bodily Injury coverage details.
-     * @param policy   The policy context (driver details, etc.).
-     * @return A RatingItem for the Bodily Injury coverage.
+     * Rates one Quote Request against the rate version in force on its start date.
      */
-    private RatingItem rateBodilyInjury(Vehicle vehicle, BodilyInjury coverage, SimpleAuto policy) {
-        logger.info("Entering rateBodilyInjury for vehicle={} with coverage={}", vehicle, coverage);
+    private RatingSet rate(SimpleAutoQuoteRequest request, RateVersions versions) {
+        long start = System.nanoTime();
 
-        double baseRate = this.lookupBaseRate(vehicle);
-        double driverFactor = this.lookupHighestDriverAgeFactor(policy);
-        double limitFactor = this.lookupLimitFactor(coverage.limit());
+        SimpleAutoQuote quote = request.quote();
+        LocalDate effectiveDate = this.resolveEffectiveDate(quote);
+        PremiumGrid grid = versions.select(effectiveDate);
+        LocalDate ratingDate = clock != null ? LocalDate.now(clock) : effectiveDate;
+
+        // Explain needs every coverage recorded, so it bypasses the quote cache
+        QuoteRatingCache.Key cacheKey = null;
+        if (quoteRatingCache != null && explainTrace == null) {
+            cacheKey = QuoteRatingCache.key(quote, grid, ratingDate);
+            List<RatingItem> cached = quoteRatingCache.get(cacheKey, quote);
+            if (cached != null) {
+                ratingMetrics.quoteRated(quote.vehicles().size(), cached.size(), System.nanoTime() - start);
+                return RatingSet.builder()
+                        .ok(true)
+                        .addRatingItems(cached)
+                        .build();
+            }
+        }
 
-        double rate = (baseRate * driverFactor * limitFactor);
+        RatingContext context = this.buildRatingContext(quote, grid, ratingDate);
+        List<RatingItem> ratingItems = this.rateVehicles(quote, context);
+        if (cacheKey != null) {
+            quoteRatingCache.put(cacheKey, ratingItems);
+        }
 
-        RatingItem ratingItem = RatingItem.builder()
-                .elementLocator(coverage.locator())
-                .chargeType(ChargeType.premium)
-                .rate(new BigDecimal(rate))
+        RatingSet ratingSet = RatingSet.builder()
+                .ok(true)
+                .addRatingItems(ratingItems)
                 .build();
 
-        logger.info("Exiting rateBodilyInjury with calculated rate: {}", rate);
-        return ratingItem;
+        long elapsedNanos = System.nanoTime() - start;
+        ratingMetrics.quoteRated(quote.vehicles().size(), ratingItems.size(), elapsedNanos);
+        if (ratingLog.isSummaryEnabled()) {
+            ratingLog.summary(quote.locator(), quote.vehicles().size(), quote.drivers().size(), ratingItems.size(),
+                    context.totalPremiumMicros(), elapsedNanos);
+        }
+        return ratingSet;
     }
 
     /**
-     * Calculates rate for Property Damage coverage.
-     * Formula: BaseRate * DriverAgeFactor * LimitFactor
+     * Installs a rate table version, replacing any version with the same effective date. The premium
+     * grid is rebuilt before the new version index is published, so requests already in flight finish
+     * on the previous tables and new requests see the new ones.
      *
-     * @param vehicle  The vehicle being rated.
-     * @param coverage The Property Damage coverage details.
-     * @param policy   The policy context (driver details, etc.).
-     * @return A RatingItem for the Property Damage coverage.
+     * @param rateTables The new rate tables.
      */
-    private RatingItem ratePropertyDamage(Vehicle vehicle, PropertyDamage coverage, SimpleAuto policy) {
-        logger.info("Entering ratePropertyDamage for vehicle={} with coverage={}", vehicle, coverage);
+    synchronized void updateRateTables(RateTables rateTables) {
+        PremiumGrid rebuilt = PremiumGrid.build(rateTables);
+        this.rateVersions = this.rateVersions.with(rebuilt);
+        if (quoteRatingCache != null) {
+            quoteRatingCache.clear();
+        }
+        logger.info("updateRateTables installed rate tables version={} effectiveDate={}",
+                rateTables.version(), rateTables.effectiveDate());
+    }
 
-        double baseRate = this.lookupBaseRate(vehicle);
-        double driverFactor = this.lookupHighestDriverAgeFactor(policy);
-        double limitFactor = this.lookupLimitFactor(coverage.limit());
+    /**
+     * Resolves the quote's effective date, which selects the rate table version and, unless a clock
+     * was injected, is the date driver ages are calculated as of.
+     *
+     * @param quote The quote being rated.
+     * @return The quote's start date in the tenant's default time zone.
+     */
+    private LocalDate resolveEffectiveDate(SimpleAutoQuote quote) {
+        Instant startTime = quote.startTime();
+        return startTime != null ? LocalDate.ofInstant(startTime, RATING_ZONE) : LocalDate.now(RATING_ZONE);
+    }
 
-        double rate = (baseRate * driverFactor * limitFactor);
+    /**
+     * Resolves the quote-wide rating inputs once per request, so coverage raters don't
+     * re-walk the driver roster or re-resolve vehicle types, territories and symbols for every coverage.
+     *
+     * @param policy     The auto policy containing vehicles and drivers.
+     * @param grid       The premium grid snapshot to rate against.
+     * @param ratingDate The date driver ages are calculated against.
+     * @return The immutable RatingContext for this request.
+     */
+    private RatingContext buildRatingContext(SimpleAuto policy, PremiumGrid grid, LocalDate ratingDate) {
+        int highestDriverAgeBand = this.lookupHighestDriverAgeBand(policy, ratingDate, grid.rateTables());
+
+        List<Vehicle> vehicles = policy.vehicles();
+        VehicleType[] vehicleTypes = new VehicleType[vehicles.size()];
+        int[] territories = new int[vehicles.size()];
+        int[] symbols = new int[vehicles.size()];
+        for (int i = 0; i < vehicleTypes.length; i++) {
+            vehicleTypes[i] = this.lookupVehicleType(vehicles.get(i));
+            territories[i] = this.lookupTerritory(policy, vehicles.get(i), grid.rateTables());
+            symbols[i] = this.lookupVehicleSymbol(vehicles.get(i), grid.rateTables());
+        }
 
-        RatingItem ratingItem = RatingItem.builder()
-                .elementLocator(coverage.locator())
-                .chargeType(ChargeType.premium)
-                .rate(new BigDecimal(rate))
-                .build();
+        ExplainTrace.Request explain = null;
+        if (explainTrace != null) {
+            explain = explainTrace.begin(policy.locator(),
+                    explainDriver(policy, ratingDate, grid.rateTables(), highestDriverAgeBand), ratingDate, grid);
+        }
 
-        logger.info("Exiting ratePropertyDamage with calculated rate: {}", rate);
-        return ratingItem;
+        return new RatingContext(grid, highestDriverAgeBand, vehicleTypes, territories, symbols, explain);
     }
 
     /**
-     * Calculates rate for Collision coverage.
-     * Formula: BaseRate * DriverAgeFactor * DeductibleFactor
-     *
-     * @param vehicle  The vehicle being rated.
-     * @param coverage The Collision coverage details.
-     * @param policy   The policy context (driver details, etc.).
-     * @return A RatingItem for the Collision coverage.
+     * @return The locator of the first driver in the given age band, or null if the policy has no drivers.
      */
-    private RatingItem rateCollision(Vehicle vehicle, Collision coverage, SimpleAuto policy) {
-        logger.info("Entering rateCollision for vehicle={} with coverage={}", vehicle, coverage);
+    private ULID explainDriver(SimpleAuto policy, LocalDate ratingDate, RateTables rateTables, int ageBand) {
+        AgeBandCutoffs cutoffs = ageBandCutoffs.get(rateTables, ratingDate);
+        for (Driver driver : policy.drivers()) {
+            if (cutoffs.ageBand(driver.data().dateOfBirth()) == ageBand) {
+                return driver.locator();
+            }
+        }
+        return null;
+    }
+
+    // =============================
+    // VEHICLE RATING METHODS
+    // =============================
 
-        double baseRate = this.lookupBaseRate(vehicle);
-        double driverFactor = this.lookupHighestDriverAgeFactor(policy);
-        double deductibleFactor = this.lookupDeductibleFactor(coverage.deductible());
+    /**
+     * Calculates rates for all vehicles within the given policy.
+     *
+     * Policies with at least -Dsimpleauto.rating.parallelVehicleThreshold vehicles (default 200) are
+     * rated in parallel on the rating pool. Each vehicle writes its RatingItems at a precomputed offset,
+     * so the result order is the same as sequential rating either way.
+     *
+     * Fleets with at least -Dsimpleauto.rating.fleetGroupingThreshold vehicles (default 16) in which most
+     * vehicles share a type, territory, symbol and coverage terms with another are instead rated once per
+     * distinct configuration by rateFleetVehicles, and the premiums copied onto each vehicle's coverages.
+     *
+     * The quote's total premium is summed in micro-units as vehicles are rated and recorded on the context
+     * for the rate() summary.
+     *
+     * @param policy  The auto policy containing vehicles.
+     * @param context The per-request rating context.
+     * @return A list of RatingItem objects for each vehicle's coverages.
+     */
+    private List<RatingItem> rateVehicles(SimpleAuto policy, RatingContext context) {
+        long start = System.nanoTime();
+        if (RatingLog.HOT_PATH_TRACE && logger.isTraceEnabled()) {
+            logger.trace("Entering rateVehicles with policy containing {} vehicles", policy.vehicles().size());
+        }
 
-        double rate = (baseRate * driverFactor * deductibleFactor);
+        List<Vehicle> vehicles = policy.vehicles();
+        int[] offsets = new int[vehicles.size() + 1];
+        for (int i = 0; i < vehicles.size(); i++) {
+            offsets[i + 1] = offsets[i] + VehicleCoverages.count(vehicles.get(i));
+        }
+        RatingItem[] allVehicleRates = new RatingItem[offsets[vehicles.size()]];
 
-        RatingItem ratingItem = RatingItem.builder()
-                .elementLocator(coverage.locator())
-                .chargeType(ChargeType.premium)
-                .rate(new BigDecimal(rate))
-                .build();
+        long totalPremiumMicros = vehicles.size() >= fleetGroupingThreshold
+                ? rateFleetVehicles(vehicles, context, allVehicleRates, offsets) : -1;
+        if (totalPremiumMicros >= 0) {
+            if (RatingLog.HOT_PATH_TRACE && logger.isTraceEnabled()) {
+                logger.trace("Rated {} vehicles by fleet grouping", vehicles.size());
+            }
+        } else if (vehicles.size() >= parallelVehicleThreshold) {
+            totalPremiumMicros = this.ratingPool().submit(() -> IntStream.range(0, vehicles.size())
+                    .parallel()
+                    .mapToLong(i -> rateVehicleCoverages(vehicles.get(i), i, context, allVehicleRates, offsets[i]))
+                    .sum())
+                    .join();
+        } else {
+            totalPremiumMicros = 0;
+            for (int i = 0; i < vehicles.size(); i++) {
+                totalPremiumMicros += rateVehicleCoverages(vehicles.get(i), i, context, allVehicleRates, offsets[i]);
+            }
+        }
+        context.recordTotalPremium(totalPremiumMicros);
 
-        logger.info("Exiting rateCollision with calculated rate: {}", rate);
-        return ratingItem;
+        if (RatingLog.HOT_PATH_TRACE && logger.isTraceEnabled()) {
+            logger.trace("Exiting rateVehicles with {} rating items", allVehicleRates.length);
+        }
+        ratingMetrics.vehiclesRated(System.nanoTime() - start);
+        return Arrays.asList(allVehicleRates);
     }
 
     /**
-     * Calculates rate for Comprehensive coverage.
-     * Formula: BaseRate * DriverAgeFactor * DeductibleFactor
+     * Rates a fleet by grouping vehicles on their RatingKeys.vehicleKey: the first vehicle with each key is
+     * rated through rateCoverage, and every later vehicle with the same key gets the same premiums stamped
+     * onto its own coverage locators. Rating work then scales with distinct vehicle configurations rather
+     * than fleet size.
      *
-     * @param vehicle  The vehicle being rated.
-     * @param coverage The Comprehensive coverage details.
-     * @param policy   The policy context (driver details, etc.).
-     * @return A RatingItem for the Comprehensive coverage, or null if coverage is null.
+     * @param vehicles    The policy's vehicles.
+     * @param context     The per-request rating context.
+     * @param ratingItems The array every vehicle's RatingItems are written to.
+     * @param offsets     The index of each vehicle's first RatingItem in ratingItems.
+     * @return The fleet's total premium in micro-units, or -1, having rated nothing, if fewer than half the
+     *         vehicles share a key with another.
      */
-    private RatingItem rateComprehensive(Vehicle vehicle, Comprehensive coverage, SimpleAuto policy) {
-        if (coverage == null) {
-            logger.warn("rateComprehensive called with null coverage for vehicle: {}", vehicle);
-            return null;
+    private long rateFleetVehicles(List<Vehicle> vehicles, RatingContext context, RatingItem[] ratingItems,
+                                      int[] offsets) {
+        long[] keys = new long[vehicles.size()];
+        Map<Long, Integer> representatives = new HashMap<>();
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = RatingKeys.vehicleKey(context.vehicleType(i), context.territory(i), context.symbol(i),
+                    vehicles.get(i));
+            if (keys[i] < 0) {
+                return -1;
+            }
+            representatives.putIfAbsent(keys[i], i);
+        }
+        if (representatives.size() * 2 > keys.length) {
+            return -1;
         }
 
-        logger.info("Entering rateComprehensive for vehicle={} with coverage={}", vehicle, coverage);
+        // Vehicles sharing a key have the same coverages and terms, so they share a premium total too
+        long[] premiumMicros = new long[keys.length];
+        long totalPremiumMicros = 0;
+        for (int i = 0; i < keys.length; i++) {
+            int representative = representatives.get(keys[i]);
+            if (representative == i) {
+                premiumMicros[i] = rateVehicleCoverages(vehicles.get(i), i, context, ratingItems, offsets[i]);
+            } else {
+                copyVehicleRates(vehicles.get(i), i, context, ratingItems, offsets[i], offsets[representative]);
+            }
+            totalPremiumMicros += premiumMicros[representative];
+        }
+        return totalPremiumMicros;
+    }
 
-        double baseRate = this.lookupBaseRate(vehicle);
-        double driverFactor = this.lookupHighestDriverAgeFactor(policy);
-        double deductibleFactor = this.lookupDeductibleFactor(coverage.deductible());
+    /**
+     * Builds a vehicle's RatingItems from an already rated vehicle with the same RatingKeys.vehicleKey.
+     *
+     * @param representativeOffset The index of the rated vehicle's first RatingItem in ratingItems.
+     */
+    private void copyVehicleRates(Vehicle vehicle, int vehicleIndex, RatingContext context, RatingItem[] ratingItems,
+                                  int offset, int representativeOffset) {
+        VehicleCoverages.forEach(vehicle, offset, (position, coverageType, locator, limit, deductible) -> {
+            if (context.explain() != null) {
+                explainTrace.record(context.explain(), locator, vehicleIndex, RatingKeys.coverageKey(coverageType,
+                        context.vehicleType(vehicleIndex), context.highestDriverAgeBand(),
+                        context.territory(vehicleIndex), context.symbol(vehicleIndex), limit, deductible));
+            }
+            ratingItems[position] = RatingItem.builder()
+                    .elementLocator(locator)
+                    .chargeType(ChargeType.premium)
+                    .rate(ratingItems[representativeOffset + position - offset].rate())
+                    .build();
+        });
+    }
 
-        double rate = (baseRate * driverFactor * deductibleFactor);
+    /**
+     * Calculates rates for each coverage available on a vehicle.
+     *
+     * @param vehicle      The vehicle whose coverages are being rated.
+     * @param vehicleIndex The vehicle's position in the policy.
+     * @param context      The per-request rating context (driver age band, vehicle types, etc.).
+     * @param ratingItems  The array the vehicle's RatingItems are written to.
+     * @param offset       The index of the vehicle's first RatingItem in ratingItems.
+     * @return The vehicle's total premium in micro-units.
+     */
+    private long rateVehicleCoverages(Vehicle vehicle, int vehicleIndex, RatingContext context,
+                                      RatingItem[] ratingItems, int offset) {
+        if (RatingLog.HOT_PATH_TRACE && logger.isTraceEnabled()) {
+            logger.trace("Processing vehicle: {}", vehicle.locator());
+        }
 
-        RatingItem ratingItem = RatingItem.builder()
-                .elementLocator(coverage.locator())
-                .chargeType(ChargeType.premium)
-                .rate(new BigDecimal(rate))
-                .build();
+        // Explain needs every coverage recorded, so it bypasses the incremental cache
+        long vehicleKey = -1;
+        if (incrementalRatingCache != null && context.explain() == null) {
+            vehicleKey = RatingKeys.vehicleKey(context.vehicleType(vehicleIndex), context.territory(vehicleIndex),
+                    context.symbol(vehicleIndex), vehicle);
+            long copiedPremiumMicros = vehicleKey < 0 ? -1 : incrementalRatingCache.copyIfUnchanged(vehicle,
+                    vehicleKey, context.highestDriverAgeBand(), context.premiumGrid(), ratingItems, offset);
+            if (copiedPremiumMicros >= 0) {
+                if (RatingLog.HOT_PATH_TRACE && logger.isTraceEnabled()) {
+                    logger.trace("Reused previous rating items for unchanged vehicle: {}", vehicle.locator());
+                }
+                return copiedPremiumMicros;
+            }
+        }
 
-        logger.info("Exiting rateComprehensive with calculated rate: {}", rate);
-        return ratingItem;
+        CoverageRater rater = coverageRaters.get();
+        rater.bind(context, ratingItems, vehicleIndex);
+        int next;
+        long premiumMicros;
+        try {
+            next = VehicleCoverages.forEach(vehicle, offset, rater);
+            premiumMicros = rater.premiumMicros;
+        } finally {
+            rater.bind(null, null, -1);
+        }
+        if (vehicleKey >= 0) {
+            incrementalRatingCache.put(vehicle, vehicleKey, context.highestDriverAgeBand(), context.premiumGrid(),
+                    ratingItems, offset, next - offset, premiumMicros);
+        }
+
+        if (RatingLog.HOT_PATH_TRACE && logger.isTraceEnabled()) {
+            logger.trace("Exiting rateVehicleCoverages with {} rating items", next - offset);
+        }
+        return premiumMicros;
     }
 
     /**
-     * Calculates rate for Uninsured Motorist coverage.
-     * Formula: BaseRate * DriverAgeFactor * LimitFactor * DeductibleFactor
-     *
-     * @param vehicle  The vehicle being rated.
-     * @param coverage The Uninsured Motorist coverage details.
-     * @param policy   The policy context (driver details, etc.).
-     * @return A RatingItem for the Uninsured Motorist coverage, or null if coverage is null.
+     * Per-thread VehicleCoverages.Visitor for rateVehicleCoverages, rebound to each vehicle instead of
+     * allocating a capturing lambda per vehicle. rateCoverage never rates another vehicle, so a thread
+     * only ever has one binding in use.
      */
-    private RatingItem rateUninsuredMotorist(Vehicle vehicle, UninsuredMotorist coverage, SimpleAuto policy) {
-        if (coverage == null) {
-            logger.warn("rateUninsuredMotorist called with null coverage for vehicle: {}", vehicle);
-            return null;
+    private final class CoverageRater implements VehicleCoverages.Visitor {
+        private RatingContext context;
+        private RatingItem[] ratingItems;
+        private int vehicleIndex;
+        private long premiumMicros;
+
+        void bind(RatingContext context, RatingItem[] ratingItems, int vehicleIndex) {
+            this.context = context;
+            this.ratingItems = ratingItems;
+            this.vehicleIndex = vehicleIndex;
+            this.premiumMicros = 0;
         }
 
-        logger.info("Entering rateUninsuredMotorist for vehicle={} with coverage={}", vehicle, coverage);
+        @Override
+        public void coverage(int position, CoverageType coverageType, ULID locator, Limit limit,
+                             Deductible deductible) {
+            ratingItems[position] = rateCoverage(coverageType, locator, vehicleIndex, limit, deductible, context);
+            premiumMicros += context.premiumGrid().premiumMicros(coverageType, context.vehicleType(vehicleIndex),
+                    context.highestDriverAgeBand(), limit, deductible, context.vehicleFactor(vehicleIndex));
+        }
+    }
 
-        double baseRate = this.lookupBaseRate(vehicle);
-        double driverFactor = this.lookupHighestDriverAgeFactor(policy);
-        double limitFactor = this.lookupLimitFactor(coverage.limit());
-        double deductibleFactor = this.lookupDeductibleFactor(coverage.deductible());
+    // =============================
+    // COVERAGE RATING METHODS
+    // =============================
 
-        double rate = (baseRate * driverFactor * limitFactor * deductibleFactor);
+/**
+ * COVERAGE RATING:
+ *
+ * Each coverage looks up a BaseRate by vehicle type, then multiplies it by a number
+ * of factors: HighestDriverFactor determined by driver age, TerritoryFactor determined by the
+ * vehicle's garaging ZIP, SymbolFactor determined by the vehicle's VIN, and limit and deductible
+ * factors determined by the coverageTerms available on that particular coverage.
+ * Coverages and their coverageTerms come from socotra-config (see CoverageType and VehicleCoverages,
+ * generated by ./gradlew generateRatingConstants), so every coverage is rated by rateCoverage.
+ * Every combination except the vehicle's territory and symbol is precomputed in the PremiumGrid, so
+ * each rater is a single grid lookup times the vehicle's combined territory and symbol factor.
+ *
+ * Every coverage is timed into its CoverageType's RatingMetrics latency histogram. With
+ * -Dsimpleauto.rating.explain.capacity set, each coverage's rating inputs are also recorded for explain().
+ *
+ * With -Dsimpleauto.rating.incrementalCacheSize set, each vehicle's last RatingItems are kept with its
+ * RatingKeys.vehicleKey, and rateVehicleCoverages copies them wholesale, without calling rateCoverage,
+ * when an endorsement leaves the vehicle unchanged. Copied coverages aren't timed into the histograms.
+ */
 
+    /**
+     * Looks up a coverage's premium in the request's PremiumGrid and builds its RatingItem.
+     *
+     * @param coverageType The coverage being rated.
+     * @param locator      The coverage's locator.
+     * @param vehicleIndex The vehicle's position in the policy.
+     * @param limit        The coverage limit, or null if the coverage has no Limit term.
+     * @param deductible   The coverage deductible, or null if the coverage has no Deductible term.
+     * @param context      The per-request rating context.
+     * @return A RatingItem for the coverage.
+     */
+    private RatingItem rateCoverage(CoverageType coverageType, ULID locator, int vehicleIndex, Limit limit,
+                                    Deductible deductible, RatingContext context) {
+        long start = System.nanoTime();
+        VehicleType vehicleType = context.vehicleType(vehicleIndex);
+        PremiumGrid grid = context.premiumGrid();
+
+        if (context.explain() != null) {
+            explainTrace.record(context.explain(), locator, vehicleIndex, RatingKeys.coverageKey(coverageType,
+                    vehicleType, context.highestDriverAgeBand(), context.territory(vehicleIndex),
+                    context.symbol(vehicleIndex), limit, deductible));
+        }
+
+        // A fresh builder per item: the platform builder's reuse contract isn't specified, and C2
+        // scalar-replaces it (see AllocationBudgetHarness for the escape-analysis-off cost)
         RatingItem ratingItem = RatingItem.builder()
-                .elementLocator(coverage.locator())
+                .elementLocator(locator)
                 .chargeType(ChargeType.premium)
-                .rate(new BigDecimal(rate))
+                .rate(grid.premium(coverageType, vehicleType, context.highestDriverAgeBand(), limit, deductible,
+                        context.vehicleFactor(vehicleIndex)))
                 .build();
 
-        logger.info("Exiting rateUninsuredMotorist with calculated rate: {}", rate);
+        if (RatingLog.HOT_PATH_TRACE && logger.isTraceEnabled()) {
+            logger.trace("rateCoverage {} coverage={} calculated rate: {}", coverageType, locator, ratingItem.rate());
+        }
+        ratingMetrics.coverageRated(coverageType, System.nanoTime() - start);
         return ratingItem;
     }
 
@@ -261,147 +725,141 @@ public class SimpleAutoRatingPlugin implements RatePlugin {
     // =============================
 
     /**
-     * Looks up the base rate for a vehicle based on its type.
+     * Looks up the vehicle type used to select a vehicle's base rate.
      *
      * @param vehicle The vehicle to lookup.
-     * @return The base rate as a double.
+     * @return The vehicle's VehicleType.
      */
-    private double lookupBaseRate(Vehicle vehicle) {
-        double baseRate = switch (vehicle.data().vehicleType()) {
-            case "Motorcycle" -> 300.0;
-            case "Car" -> 500.0;
-            case "Truck" -> 750.0;
-            default -> {
-                logger.error("lookupBaseRate failed for vehicleType={}", vehicle.data().vehicleType());
-                throw new RuntimeException("lookupBaseRate failed!");
-            }
-        };
-        logger.info("lookupBaseRate for vehicleType={} returned {}", vehicle.data().vehicleType(), baseRate);
-        return baseRate;
+    VehicleType lookupVehicleType(Vehicle vehicle) {
+        VehicleType vehicleType = VehicleType.fromValue(vehicle.data().vehicleType());
+        if (vehicleType == null) {
+            ratingMetrics.lookupFailed();
+            logger.error("lookupVehicleType failed for vehicleType={}", vehicle.data().vehicleType());
+            throw new RuntimeException("lookupVehicleType failed!");
+        }
+
+        if (RatingLog.HOT_PATH_TRACE && logger.isTraceEnabled()) {
+            logger.trace("lookupVehicleType for vehicleType={} returned {}", vehicle.data().vehicleType(), vehicleType);
+        }
+        return vehicleType;
     }
 
     /**
-     * Looks up the deductible factor for a given deductible value.
+     * Looks up the territory a vehicle is rated in: its garaging ZIP's territory, else the policy
+     * address ZIP's, else the garaging state's default, else the policy state's default, else territory 0.
      *
-     * @param deductible The deductible from the coverage.
-     * @return The corresponding deductible factor.
+     * @param policy     The auto policy containing the vehicle.
+     * @param vehicle    The vehicle to lookup.
+     * @param rateTables The rate tables in use for this request.
+     * @return The vehicle's territory.
      */
-    private double lookupDeductibleFactor(Deductible deductible) {
-        logger.info("Entering lookupDeductibleFactor for deductible={}", deductible);
-
-        double factor = switch (deductible) {
-            case DED_100 -> 1.50;
-            case DED_250 -> 1.25;
-            case DED_500 -> 0.95;
-            case DED_1000 -> 0.75;
-            case DED_2500 -> 0.50;
-            default -> {
-                logger.error("lookupDeductibleFactor failed for unknown deductible: {}", deductible);
-                throw new RuntimeException("lookupDeductibleFactor failed!");
-            }
-        };
+    int lookupTerritory(SimpleAuto policy, Vehicle vehicle, RateTables rateTables) {
+        Address garagingAddress = vehicle.data().garagingAddress();
+        Address policyAddress = policy.data() == null ? null : policy.data().policyAddress();
+
+        int territory = garagingAddress == null ? -1 : territoryIndex.territory(garagingAddress.zip());
+        if (territory < 0 && policyAddress != null) {
+            territory = territoryIndex.territory(policyAddress.zip());
+        }
+        if (territory < 0 && garagingAddress != null) {
+            territory = territoryIndex.stateTerritory(garagingAddress.state());
+        }
+        if (territory < 0 && policyAddress != null) {
+            territory = territoryIndex.stateTerritory(policyAddress.state());
+        }
+        if (territory < 0) {
+            territory = 0;
+        }
 
-        logger.info("Exiting lookupDeductibleFactor with factor={}", factor);
-        return factor;
+        if (territory >= rateTables.territoryCount()) {
+            ratingMetrics.lookupFailed();
+            logger.error("lookupTerritory failed: territory={} has no factor in rate tables version={}",
+                    territory, rateTables.version());
+            throw new RuntimeException("lookupTerritory failed!");
+        }
+
+        if (RatingLog.HOT_PATH_TRACE && logger.isTraceEnabled()) {
+            logger.trace("lookupTerritory for vehicle={} returned {}", vehicle.locator(), territory);
+        }
+        return territory;
     }
 
     /**
-     * Looks up the limit factor for a given coverage limit.
+     * Looks up the symbol a vehicle is rated by: its VIN prefix and model year's symbol, else its
+     * make, model and year's, else symbol 0.
      *
-     * @param limit The coverage limit.
-     * @return The corresponding limit factor.
+     * @param vehicle    The vehicle to lookup.
+     * @param rateTables The rate tables in use for this request.
+     * @return The vehicle's symbol.
      */
-    private double lookupLimitFactor(Limit limit) {
-        logger.info("Entering lookupLimitFactor for limit={}", limit);
-
-        double factor = switch (limit) {
-            case LIM_25 -> 0.8;
-            case LIM_50 -> 1.1;
-            case LIM_100 -> 2.0;
-            case LIM_300 -> 5.0;
-            default -> {
-                logger.error("lookupLimitFactor failed for unknown limit: {}", limit);
-                throw new RuntimeException("lookupLimitFactor failed!");
-            }
-        };
+    int lookupVehicleSymbol(Vehicle vehicle, RateTables rateTables) {
+        VehicleData data = vehicle.data();
+        int symbol = vehicleSymbolIndex.vinSymbol(data.vin(), data.year());
+        if (symbol < 0) {
+            symbol = vehicleSymbolIndex.makeModelSymbol(data.make(), data.model(), data.year());
+        }
+        if (symbol < 0) {
+            symbol = 0;
+        }
 
-        logger.info("Exiting lookupLimitFactor with factor={}", factor);
-        return factor;
-    }
+        if (symbol >= rateTables.symbolCount()) {
+            ratingMetrics.lookupFailed();
+            logger.error("lookupVehicleSymbol failed: symbol={} has no factor in rate tables version={}",
+                    symbol, rateTables.version());
+            throw new RuntimeException("lookupVehicleSymbol failed!");
+        }
 
+        if (RatingLog.HOT_PATH_TRACE && logger.isTraceEnabled()) {
+            logger.trace("lookupVehicleSymbol for vehicle={} returned {}", vehicle.locator(), symbol);
+        }
+        return symbol;
+    }
 
     /**
-     * Determines the highest driver age factor among all drivers on the policy.
+     * Determines the driver age band with the highest factor among all drivers on the policy.
      * The highest factor is used to adjust the rate.
+     * Age bands and their factors are defined in rating/*.properties (see RateTableData).
      *
-     * Age to Factor Mapping:
-     *   - Age <= 20  => 2.50
-     *   - Age 21-25  => 1.75
-     *   - Age 26-40  => 1.10
-     *   - Age 41-60  => 0.75
-     *   - Age > 60   => 0.50
+     * The birth-date cutoffs come from the AgeBandCutoffsCache, keyed by rate tables and rating date, so
+     * quotes rated as of a date already seen band each driver with a few epoch-day comparisons and no
+     * allocation.
      *
-     * @param policy The auto policy containing drivers.
-     * @return The highest driver age factor.
+     * @param policy     The auto policy containing drivers.
+     * @param ratingDate The date driver ages are calculated against.
+     * @param rateTables The rate tables in use for this request.
+     * @return The age band of the highest driver age factor.
      */
-    private double lookupHighestDriverAgeFactor(SimpleAuto policy) {
-        logger.info("Entering lookupHighestDriverAgeFactor for policy with {} drivers", policy.drivers().size());
+    int lookupHighestDriverAgeBand(SimpleAuto policy, LocalDate ratingDate, RateTables rateTables) {
+        if (RatingLog.HOT_PATH_TRACE && logger.isTraceEnabled()) {
+            logger.trace("Entering lookupHighestDriverAgeBand for policy with {} drivers", policy.drivers().size());
+        }
 
-        double highestDriverAgeFactor = 0.5;
+        AgeBandCutoffs cutoffs = ageBandCutoffs.get(rateTables, ratingDate);
+        int highestAgeBand = -1;
+        long highestDriverAgeFactor = 0;
 
         for (Driver driver : policy.drivers()) {
-            int age = calculateAge(driver);
-            double factor = getDriverAgeFactor(age);
-            highestDriverAgeFactor = Math.max(highestDriverAgeFactor, factor);
-            if (highestDriverAgeFactor == 2.5) {
-                return highestDriverAgeFactor;
+            int ageBand = cutoffs.ageBand(driver.data().dateOfBirth());
+            long factor = rateTables.ageFactor(ageBand);
+            if (highestAgeBand < 0 || factor > highestDriverAgeFactor) {
+                highestAgeBand = ageBand;
+                highestDriverAgeFactor = factor;
+            }
+            if (highestDriverAgeFactor == rateTables.maxAgeFactor()) {
+                break;
+            }
+            if (RatingLog.HOT_PATH_TRACE && logger.isTraceEnabled()) {
+                logger.trace("Driver {} (ageBand={}) has factor={}", driver.locator(), ageBand, Premium.ofMicros(factor));
             }
-            logger.info("Driver {} (age={}) has factor={}", driver, age, factor);
         }
 
-        logger.info("Exiting lookupHighestDriverAgeFactor with highest factor={}", highestDriverAgeFactor);
-        return highestDriverAgeFactor;
-    }
-
-    /**
-     * Calculates the age of a driver based on their date of birth.
-     *
-     * @param driver The driver whose age is to be calculated.
-     * @return The age in years.
-     */
-    private int calculateAge(Driver driver) {
-        logger.info("Entering calculateAge for driver: {}", driver);
-
-        LocalDate birthDate = driver.data().dateOfBirth();
-        int age = Period.between(birthDate, LocalDate.now()).getYears();
-
-        logger.info("Exiting calculateAge for driver {} with calculated age={}", driver, age);
-        return age;
-    }
-
-    /**
-     * Returns the driver age factor based on the driver's age.
-     *
-     * @param age The age of the driver.
-     * @return The corresponding age factor.
-     */
-    private double getDriverAgeFactor(int age) {
-        logger.info("Entering getDriverAgeFactor for age={}", age);
-
-        double factor;
-        if (age <= 20) {
-            factor = 2.5;
-        } else if (age <= 25) {
-            factor = 1.75;
-        } else if (age <= 40) {
-            factor = 1.10;
-        } else if (age <= 60) {
-            factor = 0.75;
-        } else {
-            factor = 0.5;
+        if (highestAgeBand < 0) {
+            highestAgeBand = rateTables.minAgeFactorBand();
         }
 
-        logger.info("Exiting getDriverAgeFactor with factor={}", factor);
-        return factor;
+        if (RatingLog.HOT_PATH_TRACE && logger.isTraceEnabled()) {
+            logger.trace("Exiting lookupHighestDriverAgeBand with highest factor={}", Premium.ofMicros(highestDriverAgeFactor));
+        }
+        return highestAgeBand;
     }
-}
\ No newline at end of file
+}
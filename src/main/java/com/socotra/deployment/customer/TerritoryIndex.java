@@ -0,0 +1,192 @@
+package com.socotra.deployment.customer;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+/**
+ * ZIP5-to-territory table used to pick a vehicle's territory factor (see RateTables).
+ *
+ * ZIPs are held as a sorted int array with a parallel byte array of territories, so a lookup is a
+ * binary search over primitives (about 16 probes for the full ~42k US ZIPs) with no boxing or String
+ * allocation. State default territories are held in an array indexed by the two-letter state code.
+ *
+ * The source is a text file of "zip,territory" lines, plus "state,territory" lines for state
+ * defaults. Blank lines and lines starting with # are ignored.
+ */
+final class TerritoryIndex {
+    static final TerritoryIndex EMPTY = new TerritoryIndex(new int[0], new byte[0], emptyStateTerritories());
+
+    private static final int MAX_TERRITORY = 255;
+
+    private final int[] zips;
+    private final byte[] territories;
+    private final short[] stateTerritories;
+
+    private TerritoryIndex(int[] zips, byte[] territories, short[] stateTerritories) {
+        this.zips = zips;
+        this.territories = territories;
+        this.stateTerritories = stateTerritories;
+    }
+
+    /**
+     * @param path The territory source file.
+     * @return The parsed TerritoryIndex.
+     * @throws RuntimeException if the file can't be read or a line is malformed.
+     */
+    static TerritoryIndex read(Path path) {
+        try {
+            return parse(Files.readAllBytes(path));
+        } catch (IOException e) {
+            throw new RuntimeException("TerritoryIndex read failed for " + path, e);
+        }
+    }
+
+    /**
+     * Parses the source bytes directly, without splitting into Strings, so the full ZIP table loads in a
+     * few milliseconds.
+     *
+     * @param source The territory source, as US-ASCII text.
+     * @return The parsed TerritoryIndex.
+     * @throws RuntimeException if a line is malformed or a ZIP is listed twice.
+     */
+    static TerritoryIndex parse(byte[] source) {
+        // Packed as zip << 8 | territory so sorting keeps each ZIP with its territory
+        long[] entries = new long[1024];
+        int count = 0;
+        short[] stateTerritories = emptyStateTerritories();
+
+        int line = 0;
+        int position = 0;
+        while (position < source.length) {
+            line++;
+            int end = position;
+            while (end < source.length && source[end] != '\n') {
+                end++;
+            }
+            int lineEnd = end > position && source[end - 1] == '\r' ? end - 1 : end;
+            int start = skipSpaces(source, position, lineEnd);
+
+            if (start < lineEnd && source[start] != '#') {
+                int comma = start;
+                while (comma < lineEnd && source[comma] != ',') {
+                    comma++;
+                }
+                if (comma == lineEnd) {
+                    throw invalid(line, "expected zip,territory or state,territory");
+                }
+                int territory = parseNumber(source, skipSpaces(source, comma + 1, lineEnd), lineEnd, line);
+                if (territory > MAX_TERRITORY) {
+                    throw invalid(line, "territory must be 0-" + MAX_TERRITORY);
+                }
+
+                int keyEnd = comma;
+                while (keyEnd > start && source[keyEnd - 1] == ' ') {
+                    keyEnd--;
+                }
+                if (keyEnd - start == 2 && isLetter(source[start]) && isLetter(source[start + 1])) {
+                    stateTerritories[stateIndex(source[start], source[start + 1])] = (short) territory;
+                } else {
+                    if (keyEnd - start != 5) {
+                        throw invalid(line, "ZIP must be 5 digits");
+                    }
+                    if (count == entries.length) {
+                        entries = Arrays.copyOf(entries, count * 2);
+                    }
+                    entries[count++] = (long) parseNumber(source, start, keyEnd, line) << 8 | territory;
+                }
+            }
+            position = end + 1;
+        }
+
+        Arrays.sort(entries, 0, count);
+        int[] zips = new int[count];
+        byte[] territories = new byte[count];
+        for (int i = 0; i < count; i++) {
+            zips[i] = (int) (entries[i] >>> 8);
+            territories[i] = (byte) entries[i];
+            if (i > 0 && zips[i] == zips[i - 1]) {
+                throw new RuntimeException("TerritoryIndex invalid: duplicate ZIP " + zips[i]);
+            }
+        }
+        return new TerritoryIndex(zips, territories, stateTerritories);
+    }
+
+    /**
+     * @param zip A ZIP or ZIP+4, e.g. "62701" or "62701-1234". May be null.
+     * @return The ZIP's territory, or -1 if the ZIP is missing, malformed or not in the table.
+     */
+    int territory(String zip) {
+        if (zip == null || zip.length() < 5) {
+            return -1;
+        }
+        int zip5 = 0;
+        for (int i = 0; i < 5; i++) {
+            char c = zip.charAt(i);
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+            zip5 = zip5 * 10 + (c - '0');
+        }
+        int index = Arrays.binarySearch(zips, zip5);
+        return index >= 0 ? territories[index] & 0xFF : -1;
+    }
+
+    /**
+     * @param state A two-letter state code. May be null.
+     * @return The state's default territory, or -1 if it has none.
+     */
+    int stateTerritory(String state) {
+        if (state == null || state.length() != 2 || !isLetter((byte) state.charAt(0)) || !isLetter((byte) state.charAt(1))) {
+            return -1;
+        }
+        return stateTerritories[stateIndex((byte) state.charAt(0), (byte) state.charAt(1))];
+    }
+
+    int size() {
+        return zips.length;
+    }
+
+    private static short[] emptyStateTerritories() {
+        short[] stateTerritories = new short[26 * 26];
+        Arrays.fill(stateTerritories, (short) -1);
+        return stateTerritories;
+    }
+
+    private static int stateIndex(byte first, byte second) {
+        return (Character.toUpperCase(first) - 'A') * 26 + (Character.toUpperCase(second) - 'A');
+    }
+
+    private static boolean isLetter(byte b) {
+        return (b >= 'A' && b <= 'Z') || (b >= 'a' && b <= 'z');
+    }
+
+    private static int skipSpaces(byte[] source, int position, int end) {
+        while (position < end && source[position] == ' ') {
+            position++;
+        }
+        return position;
+    }
+
+    private static int parseNumber(byte[] source, int start, int end, int line) {
+        while (end > start && source[end - 1] == ' ') {
+            end--;
+        }
+        if (start == end || end - start > 9) {
+            throw invalid(line, "expected a number");
+        }
+        int value = 0;
+        for (int i = start; i < end; i++) {
+            if (source[i] < '0' || source[i] > '9') {
+                throw invalid(line, "expected a number");
+            }
+            value = value * 10 + (source[i] - '0');
+        }
+        return value;
+    }
+
+    private static RuntimeException invalid(int line, String reason) {
+        return new RuntimeException("TerritoryIndex invalid at line " + line + ": " + reason);
+    }
+}
@@ -0,0 +1,74 @@
+// Generated by ./gradlew generateRatingConstants from socotra-config and rating/*.properties.
+// Do not edit: change the sources and re-run the task.
+package com.socotra.deployment.customer;
+
+import com.socotra.coremodel.Deductible;
+import com.socotra.coremodel.Limit;
+import com.socotra.coremodel.Vehicle;
+import com.socotra.platform.tools.ULID;
+
+/**
+ * Walks a Vehicle's coverages in CoverageType order, passing each one's rating terms to a Visitor.
+ * Every rating path (single quote, columnar batch, quote cache) uses this walk, so they all agree
+ * on which coverages a vehicle has and in what order its RatingItems appear.
+ */
+final class VehicleCoverages {
+
+    private VehicleCoverages() {
+    }
+
+    interface Visitor {
+        /**
+         * @param position     The coverage's position, counting on from forEach's start position.
+         * @param coverageType The coverage.
+         * @param locator      The coverage's locator.
+         * @param limit        The coverage limit, or null if the coverage has no Limit term.
+         * @param deductible   The coverage deductible, or null if the coverage has no Deductible term.
+         */
+        void coverage(int position, CoverageType coverageType, ULID locator, Limit limit,
+                      Deductible deductible);
+    }
+
+    /**
+     * @return The number of coverages on the vehicle.
+     */
+    static int count(Vehicle vehicle) {
+        int count = 2;
+        if (vehicle.collision() != null) {
+            count++;
+        }
+        if (vehicle.comprehensive() != null) {
+            count++;
+        }
+        if (vehicle.uninsuredMotorist() != null) {
+            count++;
+        }
+        return count;
+    }
+
+    /**
+     * @param vehicle  The vehicle whose coverages are visited.
+     * @param position The first coverage's position.
+     * @param visitor  Receives each coverage.
+     * @return The position after the vehicle's last coverage.
+     */
+    static int forEach(Vehicle vehicle, int position, Visitor visitor) {
+        visitor.coverage(position++, CoverageType.BodilyInjury, vehicle.bodilyInjury().locator(),
+                vehicle.bodilyInjury().limit(), null);
+        visitor.coverage(position++, CoverageType.PropertyDamage, vehicle.propertyDamage().locator(),
+                vehicle.propertyDamage().limit(), null);
+        if (vehicle.collision() != null) {
+            visitor.coverage(position++, CoverageType.Collision, vehicle.collision().locator(),
+                    null, vehicle.collision().deductible());
+        }
+        if (vehicle.comprehensive() != null) {
+            visitor.coverage(position++, CoverageType.Comprehensive, vehicle.comprehensive().locator(),
+                    null, vehicle.comprehensive().deductible());
+        }
+        if (vehicle.uninsuredMotorist() != null) {
+            visitor.coverage(position++, CoverageType.UninsuredMotorist, vehicle.uninsuredMotorist().locator(),
+                    vehicle.uninsuredMotorist().limit(), vehicle.uninsuredMotorist().deductible());
+        }
+        return position;
+    }
+}
@@ -0,0 +1,288 @@
+package com.socotra.deployment.customer;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.zip.CRC32C;
+
+/**
+ * Vehicle symbol table used to pick a vehicle's symbol factor (see RateTables), searched in place in a
+ * memory-mapped file so a multi-million-row table never lands on the heap.
+ *
+ * Layout (big-endian):
+ * <pre>
+ *   header:      int magic "SAVS" | int formatVersion | int vinRecords | int makeModelRecords | long crc32c
+ *   VIN section: vinRecords longs, ascending as unsigned, each VIN key (56 bits) &lt;&lt; 8 | symbol
+ *   make/model:  makeModelRecords pairs of longs, ascending by hash then year,
+ *                each make/model hash | model year &lt;&lt; 8 | symbol
+ * </pre>
+ * A VIN key packs the VIN's WMI and VDS (characters 1-8) at 6 bits per character, then the model year
+ * less 1900. A VIN starting with W, X, Y or Z encodes to 32-35 and sets a record's top bit, which is why
+ * the VIN section is ordered as unsigned longs. Make/model hashes are 64-bit FNV-1a over the upper-cased
+ * make, a 0 separator and the upper-cased model. Lookups are a binary search over fixed-width records (about 22 probes for 3 million
+ * VIN prefixes) with no allocation. The checksum covers both sections, so a truncated or corrupt file is
+ * rejected whole.
+ */
+final class VehicleSymbolIndex {
+    static final int MAGIC = 0x53415653;
+    // 2: VIN records sorted as unsigned; version 1 files sorted W-Z VINs first and can't be searched
+    static final int FORMAT_VERSION = 2;
+    static final int HEADER_BYTES = 24;
+    static final VehicleSymbolIndex EMPTY = new VehicleSymbolIndex(ByteBuffer.allocate(HEADER_BYTES), 0, 0);
+
+    private static final int VIN_PREFIX_LENGTH = 8;
+    private static final int MIN_MODEL_YEAR = 1900;
+    private static final int MAX_MODEL_YEAR = MIN_MODEL_YEAR + 255;
+    private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    private final ByteBuffer buffer;
+    private final int vinRecords;
+    private final int makeModelRecords;
+    private final int makeModelOffset;
+
+    private VehicleSymbolIndex(ByteBuffer buffer, int vinRecords, int makeModelRecords) {
+        this.buffer = buffer;
+        this.vinRecords = vinRecords;
+        this.makeModelRecords = makeModelRecords;
+        this.makeModelOffset = HEADER_BYTES + vinRecords * Long.BYTES;
+    }
+
+    /**
+     * Maps a symbol file and validates its header and checksum.
+     *
+     * @param path The vehicle symbol file.
+     * @return The mapped VehicleSymbolIndex.
+     * @throws RuntimeException if the file can't be mapped or fails validation.
+     */
+    static VehicleSymbolIndex open(Path path) {
+        MappedByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        } catch (IOException e) {
+            throw new RuntimeException("VehicleSymbolIndex read failed for " + path, e);
+        }
+
+        if (buffer.limit() < HEADER_BYTES || buffer.getInt(0) != MAGIC) {
+            throw new RuntimeException("VehicleSymbolIndex invalid: not a vehicle symbol file");
+        }
+        if (buffer.getInt(4) != FORMAT_VERSION) {
+            throw new RuntimeException("VehicleSymbolIndex invalid: unsupported format version " + buffer.getInt(4));
+        }
+        int vinRecords = buffer.getInt(8);
+        int makeModelRecords = buffer.getInt(12);
+        long expectedBytes = HEADER_BYTES + (long) vinRecords * Long.BYTES + (long) makeModelRecords * 2 * Long.BYTES;
+        if (vinRecords < 0 || makeModelRecords < 0 || expectedBytes != buffer.limit()) {
+            throw new RuntimeException("VehicleSymbolIndex invalid: expected " + expectedBytes + " bytes, found "
+                    + buffer.limit());
+        }
+        if (buffer.getLong(16) != checksum(buffer)) {
+            throw new RuntimeException("VehicleSymbolIndex invalid: checksum mismatch");
+        }
+        return new VehicleSymbolIndex(buffer, vinRecords, makeModelRecords);
+    }
+
+    /**
+     * Writes a symbol file to a temp file in the same directory and atomically moves it into place.
+     *
+     * @param vinRecords       VIN records, each vinKey(...) &lt;&lt; 8 | symbol. Sorted in place.
+     * @param makeModelHashes  Make/model hashes from makeModelHash(...), parallel to makeModelYears.
+     * @param makeModelYears   Make/model records, each model year &lt;&lt; 8 | symbol.
+     * @param path             The destination file.
+     * @throws RuntimeException if a VIN key or make/model/year is listed twice.
+     */
+    static void write(long[] vinRecords, long[] makeModelHashes, long[] makeModelYears, Path path) throws IOException {
+        // Flipping the sign bit makes a signed sort order the records as unsigned
+        for (int i = 0; i < vinRecords.length; i++) {
+            vinRecords[i] ^= Long.MIN_VALUE;
+        }
+        Arrays.sort(vinRecords);
+        for (int i = 0; i < vinRecords.length; i++) {
+            vinRecords[i] ^= Long.MIN_VALUE;
+        }
+        for (int i = 1; i < vinRecords.length; i++) {
+            if (vinRecords[i] >>> 8 == vinRecords[i - 1] >>> 8) {
+                throw new RuntimeException("VehicleSymbolIndex invalid: duplicate VIN key " + (vinRecords[i] >>> 8));
+            }
+        }
+
+        Integer[] order = new Integer[makeModelHashes.length];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> {
+            int byHash = Long.compare(makeModelHashes[a], makeModelHashes[b]);
+            return byHash != 0 ? byHash : Long.compare(makeModelYears[a], makeModelYears[b]);
+        });
+
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_BYTES + vinRecords.length * Long.BYTES
+                + makeModelHashes.length * 2 * Long.BYTES);
+        buffer.position(HEADER_BYTES);
+        for (long record : vinRecords) {
+            buffer.putLong(record);
+        }
+        for (int i = 0; i < order.length; i++) {
+            int record = order[i];
+            if (i > 0 && makeModelHashes[record] == makeModelHashes[order[i - 1]]
+                    && makeModelYears[record] >>> 8 == makeModelYears[order[i - 1]] >>> 8) {
+                throw new RuntimeException("VehicleSymbolIndex invalid: duplicate make/model/year");
+            }
+            buffer.putLong(makeModelHashes[record]).putLong(makeModelYears[record]);
+        }
+        buffer.putInt(0, MAGIC)
+                .putInt(4, FORMAT_VERSION)
+                .putInt(8, vinRecords.length)
+                .putInt(12, makeModelHashes.length)
+                .putLong(16, checksum(buffer));
+
+        Path absolute = path.toAbsolutePath();
+        Path temp = Files.createTempFile(absolute.getParent(), absolute.getFileName().toString(), ".tmp");
+        try {
+            Files.write(temp, buffer.array());
+            Files.move(temp, absolute, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    /**
+     * @param vin       A VIN, or at least its first 8 characters. May be null.
+     * @param modelYear The vehicle's model year.
+     * @return The symbol for the VIN's WMI/VDS and model year, or -1 if it isn't in the table.
+     */
+    int vinSymbol(String vin, int modelYear) {
+        long key = vinKey(vin, modelYear);
+        return key < 0 ? -1 : vinKeySymbol(key);
+    }
+
+    /**
+     * @param key A VIN key from vinKey(...).
+     * @return The symbol for the VIN key, or -1 if it isn't in the table.
+     */
+    int vinKeySymbol(long key) {
+        // Keys are at most 56 bits, so once shifted down they compare the same signed or unsigned
+        int low = 0;
+        int high = vinRecords - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            long record = buffer.getLong(HEADER_BYTES + mid * Long.BYTES);
+            long recordKey = record >>> 8;
+            if (recordKey < key) {
+                low = mid + 1;
+            } else if (recordKey > key) {
+                high = mid - 1;
+            } else {
+                return (int) (record & 0xFF);
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * @param make      The vehicle make. May be null.
+     * @param model     The vehicle model. May be null.
+     * @param modelYear The vehicle's model year.
+     * @return The symbol for the make, model and year, or -1 if it isn't in the table.
+     */
+    int makeModelSymbol(String make, String model, int modelYear) {
+        if (make == null || model == null) {
+            return -1;
+        }
+        return makeModelHashSymbol(makeModelHash(make, model), modelYear);
+    }
+
+    /**
+     * @param hash      A make/model hash from makeModelHash(...).
+     * @param modelYear The vehicle's model year.
+     * @return The symbol for the make/model hash and year, or -1 if it isn't in the table.
+     */
+    int makeModelHashSymbol(long hash, int modelYear) {
+        int low = 0;
+        int high = makeModelRecords - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int offset = makeModelOffset + mid * 2 * Long.BYTES;
+            int byHash = Long.compare(buffer.getLong(offset), hash);
+            long yearSymbol = buffer.getLong(offset + Long.BYTES);
+            int comparison = byHash != 0 ? byHash : Long.compare(yearSymbol >>> 8, modelYear);
+            if (comparison < 0) {
+                low = mid + 1;
+            } else if (comparison > 0) {
+                high = mid - 1;
+            } else {
+                return (int) (yearSymbol & 0xFF);
+            }
+        }
+        return -1;
+    }
+
+    int vinRecords() {
+        return vinRecords;
+    }
+
+    int makeModelRecords() {
+        return makeModelRecords;
+    }
+
+    /**
+     * @param vin       A VIN, or at least its first 8 characters.
+     * @param modelYear The model year, 1900 to 2155.
+     * @return The packed 56-bit VIN key, or -1 if the VIN or year can't be packed.
+     */
+    static long vinKey(CharSequence vin, int modelYear) {
+        if (vin == null || vin.length() < VIN_PREFIX_LENGTH || modelYear < MIN_MODEL_YEAR || modelYear > MAX_MODEL_YEAR) {
+            return -1;
+        }
+        long key = 0;
+        for (int i = 0; i < VIN_PREFIX_LENGTH; i++) {
+            char c = vin.charAt(i);
+            int code;
+            if (c >= '0' && c <= '9') {
+                code = c - '0';
+            } else if (c >= 'A' && c <= 'Z') {
+                code = c - 'A' + 10;
+            } else if (c >= 'a' && c <= 'z') {
+                code = c - 'a' + 10;
+            } else {
+                return -1;
+            }
+            key = key << 6 | code;
+        }
+        return key << 8 | (modelYear - MIN_MODEL_YEAR);
+    }
+
+    static long makeModelHash(String make, String model) {
+        long hash = FNV_OFFSET_BASIS;
+        hash = fnv(hash, make);
+        // The 0 separator keeps "AB" + "C" and "A" + "BC" apart; XOR with 0 is a no-op
+        hash *= FNV_PRIME;
+        return fnv(hash, model);
+    }
+
+    private static long fnv(long hash, String value) {
+        int end = value.length();
+        while (end > 0 && value.charAt(end - 1) == ' ') {
+            end--;
+        }
+        int start = 0;
+        while (start < end && value.charAt(start) == ' ') {
+            start++;
+        }
+        for (int i = start; i < end; i++) {
+            hash = (hash ^ Character.toUpperCase(value.charAt(i))) * FNV_PRIME;
+        }
+        return hash;
+    }
+
+    private static long checksum(ByteBuffer buffer) {
+        CRC32C crc = new CRC32C();
+        crc.update(buffer.duplicate().position(HEADER_BYTES).limit(buffer.limit()));
+        return crc.getValue();
+    }
+}
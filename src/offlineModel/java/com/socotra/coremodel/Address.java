@@ -0,0 +1,47 @@
+package com.socotra.coremodel;
+
+/**
+ * Stand-in for the generated Address data type (socotra-config/dataTypes/Address).
+ */
+public record Address(String line1, String line2, String city, String state, String zip) {
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public static final class Builder {
+        private String line1;
+        private String line2;
+        private String city;
+        private String state;
+        private String zip;
+
+        public Builder line1(String line1) {
+            this.line1 = line1;
+            return this;
+        }
+
+        public Builder line2(String line2) {
+            this.line2 = line2;
+            return this;
+        }
+
+        public Builder city(String city) {
+            this.city = city;
+            return this;
+        }
+
+        public Builder state(String state) {
+            this.state = state;
+            return this;
+        }
+
+        public Builder zip(String zip) {
+            this.zip = zip;
+            return this;
+        }
+
+        public Address build() {
+            return new Address(line1, line2, city, state, zip);
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package com.socotra.coremodel;
+
+import com.socotra.platform.tools.ULID;
+
+/**
+ * Stand-in for the generated BodilyInjury coverage.
+ */
+public record BodilyInjury(ULID locator, Limit limit) {
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public static final class Builder {
+        private ULID locator;
+        private Limit limit;
+
+        public Builder locator(ULID locator) {
+            this.locator = locator;
+            return this;
+        }
+
+        public Builder limit(Limit limit) {
+            this.limit = limit;
+            return this;
+        }
+
+        public BodilyInjury build() {
+            return new BodilyInjury(locator, limit);
+        }
+    }
+}
@@ -0,0 +1,8 @@
+package com.socotra.coremodel;
+
+/**
+ * Stand-in for the generated charge types (socotra-config/charges).
+ */
+public enum ChargeType {
+    premium
+}
@@ -0,0 +1,31 @@
+package com.socotra.coremodel;
+
+import com.socotra.platform.tools.ULID;
+
+/**
+ * Stand-in for the generated Collision coverage.
+ */
+public record Collision(ULID locator, Deductible deductible) {
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public static final class Builder {
+        private ULID locator;
+        private Deductible deductible;
+
+        public Builder locator(ULID locator) {
+            this.locator = locator;
+            return this;
+        }
+
+        public Builder deductible(Deductible deductible) {
+            this.deductible = deductible;
+            return this;
+        }
+
+        public Collision build() {
+            return new Collision(locator, deductible);
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package com.socotra.coremodel;
+
+/**
+ * Stand-in for the generated Deductible coverageTerm (socotra-config/coverageTerms/Deductible).
+ */
+public enum Deductible {
+    DED_100,
+    DED_250,
+    DED_500,
+    DED_1000,
+    DED_2500
+}
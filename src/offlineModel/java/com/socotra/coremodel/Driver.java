@@ -0,0 +1,31 @@
+package com.socotra.coremodel;
+
+import com.socotra.platform.tools.ULID;
+
+/**
+ * Stand-in for the generated Driver exposure.
+ */
+public record Driver(ULID locator, DriverData data) {
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public static final class Builder {
+        private ULID locator;
+        private DriverData data;
+
+        public Builder locator(ULID locator) {
+            this.locator = locator;
+            return this;
+        }
+
+        public Builder data(DriverData data) {
+            this.data = data;
+            return this;
+        }
+
+        public Driver build() {
+            return new Driver(locator, data);
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package com.socotra.coremodel;
+
+import java.time.LocalDate;
+
+/**
+ * Stand-in for the generated Driver exposure data (socotra-config/exposures/Driver).
+ */
+public record DriverData(String firstName, String lastName, Address address, LocalDate dateOfBirth, String licenseState, String licenseNumber) {
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public static final class Builder {
+        private String firstName;
+        private String lastName;
+        private Address address;
+        private LocalDate dateOfBirth;
+        private String licenseState;
+        private String licenseNumber;
+
+        public Builder firstName(String firstName) {
+            this.firstName = firstName;
+            return this;
+        }
+
+        public Builder lastName(String lastName) {
+            this.lastName = lastName;
+            return this;
+        }
+
+        public Builder address(Address address) {
+            this.address = address;
+            return this;
+        }
+
+        public Builder dateOfBirth(LocalDate dateOfBirth) {
+            this.dateOfBirth = dateOfBirth;
+            return this;
+        }
+
+        public Builder licenseState(String licenseState) {
+            this.licenseState = licenseState;
+            return this;
+        }
+
+        public Builder licenseNumber(String licenseNumber) {
+            this.licenseNumber = licenseNumber;
+            return this;
+        }
+
+        public DriverData build() {
+            return new DriverData(firstName, lastName, address, dateOfBirth, licenseState, licenseNumber);
+        }
+    }
+}
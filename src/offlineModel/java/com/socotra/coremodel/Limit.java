@@ -0,0 +1,11 @@
+package com.socotra.coremodel;
+
+/**
+ * Stand-in for the generated Limit coverageTerm (socotra-config/coverageTerms/Limit).
+ */
+public enum Limit {
+    LIM_25,
+    LIM_50,
+    LIM_100,
+    LIM_300
+}
@@ -0,0 +1,31 @@
+package com.socotra.coremodel;
+
+import com.socotra.platform.tools.ULID;
+
+/**
+ * Stand-in for the generated PropertyDamage coverage.
+ */
+public record PropertyDamage(ULID locator, Limit limit) {
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public static final class Builder {
+        private ULID locator;
+        private Limit limit;
+
+        public Builder locator(ULID locator) {
+            this.locator = locator;
+            return this;
+        }
+
+        public Builder limit(Limit limit) {
+            this.limit = limit;
+            return this;
+        }
+
+        public PropertyDamage build() {
+            return new PropertyDamage(locator, limit);
+        }
+    }
+}
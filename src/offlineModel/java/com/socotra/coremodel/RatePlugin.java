@@ -0,0 +1,8 @@
+package com.socotra.coremodel;
+
+/**
+ * Stand-in for the generated rating plugin interface.
+ */
+public interface RatePlugin {
+    RatingSet rate(SimpleAutoQuoteRequest request);
+}
@@ -0,0 +1,39 @@
+package com.socotra.coremodel;
+
+import com.socotra.platform.tools.ULID;
+
+import java.math.BigDecimal;
+
+/**
+ * Stand-in for the platform RatingItem.
+ */
+public record RatingItem(ULID elementLocator, ChargeType chargeType, BigDecimal rate) {
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public static final class Builder {
+        private ULID elementLocator;
+        private ChargeType chargeType;
+        private BigDecimal rate;
+
+        public Builder elementLocator(ULID elementLocator) {
+            this.elementLocator = elementLocator;
+            return this;
+        }
+
+        public Builder chargeType(ChargeType chargeType) {
+            this.chargeType = chargeType;
+            return this;
+        }
+
+        public Builder rate(BigDecimal rate) {
+            this.rate = rate;
+            return this;
+        }
+
+        public RatingItem build() {
+            return new RatingItem(elementLocator, chargeType, rate);
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package com.socotra.coremodel;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Stand-in for the platform RatingSet.
+ */
+public record RatingSet(boolean ok, List<RatingItem> ratingItems) {
+    public RatingSet {
+        ratingItems = List.copyOf(ratingItems);
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public static final class Builder {
+        private boolean ok;
+        private final List<RatingItem> ratingItems = new ArrayList<>();
+
+        public Builder ok(boolean ok) {
+            this.ok = ok;
+            return this;
+        }
+
+        public Builder addRatingItems(RatingItem element) {
+            this.ratingItems.add(element);
+            return this;
+        }
+
+        public Builder addRatingItems(Collection<? extends RatingItem> elements) {
+            this.ratingItems.addAll(elements);
+            return this;
+        }
+
+        public RatingSet build() {
+            return new RatingSet(ok, ratingItems);
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package com.socotra.coremodel;
+
+import com.socotra.platform.tools.ULID;
+
+import java.util.List;
+
+/**
+ * Stand-in for the generated SimpleAuto product interface shared by quotes and policies.
+ */
+public interface SimpleAuto {
+    ULID locator();
+
+    SimpleAutoData data();
+
+    List<Vehicle> vehicles();
+
+    List<Driver> drivers();
+}
@@ -0,0 +1,23 @@
+package com.socotra.coremodel;
+
+/**
+ * Stand-in for the generated SimpleAuto product data (socotra-config/products/SimpleAuto).
+ */
+public record SimpleAutoData(Address policyAddress) {
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public static final class Builder {
+        private Address policyAddress;
+
+        public Builder policyAddress(Address policyAddress) {
+            this.policyAddress = policyAddress;
+            return this;
+        }
+
+        public SimpleAutoData build() {
+            return new SimpleAutoData(policyAddress);
+        }
+    }
+}
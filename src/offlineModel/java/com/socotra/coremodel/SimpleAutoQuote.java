@@ -0,0 +1,69 @@
+package com.socotra.coremodel;
+
+import com.socotra.platform.tools.ULID;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Stand-in for the generated SimpleAuto quote.
+ */
+public record SimpleAutoQuote(ULID locator, Instant startTime, SimpleAutoData data, List<Vehicle> vehicles, List<Driver> drivers) implements SimpleAuto {
+    public SimpleAutoQuote {
+        vehicles = List.copyOf(vehicles);
+        drivers = List.copyOf(drivers);
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public static final class Builder {
+        private ULID locator;
+        private Instant startTime;
+        private SimpleAutoData data;
+        private final List<Vehicle> vehicles = new ArrayList<>();
+        private final List<Driver> drivers = new ArrayList<>();
+
+        public Builder locator(ULID locator) {
+            this.locator = locator;
+            return this;
+        }
+
+        public Builder startTime(Instant startTime) {
+            this.startTime = startTime;
+            return this;
+        }
+
+        public Builder data(SimpleAutoData data) {
+            this.data = data;
+            return this;
+        }
+
+        public Builder addVehicles(Vehicle element) {
+            this.vehicles.add(element);
+            return this;
+        }
+
+        public Builder addVehicles(Collection<? extends Vehicle> elements) {
+            this.vehicles.addAll(elements);
+            return this;
+        }
+
+        public Builder addDrivers(Driver element) {
+            this.drivers.add(element);
+            return this;
+        }
+
+        public Builder addDrivers(Collection<? extends Driver> elements) {
+            this.drivers.addAll(elements);
+            return this;
+        }
+
+        public SimpleAutoQuote build() {
+            return new SimpleAutoQuote(locator, startTime, data, vehicles, drivers);
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package com.socotra.coremodel;
+
+/**
+ * Stand-in for the generated rating request passed to RatePlugin.rate.
+ */
+public record SimpleAutoQuoteRequest(SimpleAutoQuote quote) {
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public static final class Builder {
+        private SimpleAutoQuote quote;
+
+        public Builder quote(SimpleAutoQuote quote) {
+            this.quote = quote;
+            return this;
+        }
+
+        public SimpleAutoQuoteRequest build() {
+            return new SimpleAutoQuoteRequest(quote);
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package com.socotra.coremodel;
+
+import com.socotra.platform.tools.ULID;
+
+/**
+ * Stand-in for the generated UninsuredMotorist coverage.
+ */
+public record UninsuredMotorist(ULID locator, Limit limit, Deductible deductible) {
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public static final class Builder {
+        private ULID locator;
+        private Limit limit;
+        private Deductible deductible;
+
+        public Builder locator(ULID locator) {
+            this.locator = locator;
+            return this;
+        }
+
+        public Builder limit(Limit limit) {
+            this.limit = limit;
+            return this;
+        }
+
+        public Builder deductible(Deductible deductible) {
+            this.deductible = deductible;
+            return this;
+        }
+
+        public UninsuredMotorist build() {
+            return new UninsuredMotorist(locator, limit, deductible);
+        }
+    }
+}
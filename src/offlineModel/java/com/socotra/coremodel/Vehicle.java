@@ -0,0 +1,61 @@
+package com.socotra.coremodel;
+
+import com.socotra.platform.tools.ULID;
+
+/**
+ * Stand-in for the generated Vehicle exposure. Optional coverages are null when absent.
+ */
+public record Vehicle(ULID locator, VehicleData data, BodilyInjury bodilyInjury, PropertyDamage propertyDamage, Collision collision, Comprehensive comprehensive, UninsuredMotorist uninsuredMotorist) {
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public static final class Builder {
+        private ULID locator;
+        private VehicleData data;
+        private BodilyInjury bodilyInjury;
+        private PropertyDamage propertyDamage;
+        private Collision collision;
+        private Comprehensive comprehensive;
+        private UninsuredMotorist uninsuredMotorist;
+
+        public Builder locator(ULID locator) {
+            this.locator = locator;
+            return this;
+        }
+
+        public Builder data(VehicleData data) {
+            this.data = data;
+            return this;
+        }
+
+        public Builder bodilyInjury(BodilyInjury bodilyInjury) {
+            this.bodilyInjury = bodilyInjury;
+            return this;
+        }
+
+        public Builder propertyDamage(PropertyDamage propertyDamage) {
+            this.propertyDamage = propertyDamage;
+            return this;
+        }
+
+        public Builder collision(Collision collision) {
+            this.collision = collision;
+            return this;
+        }
+
+        public Builder comprehensive(Comprehensive comprehensive) {
+            this.comprehensive = comprehensive;
+            return this;
+        }
+
+        public Builder uninsuredMotorist(UninsuredMotorist uninsuredMotorist) {
+            this.uninsuredMotorist = uninsuredMotorist;
+            return this;
+        }
+
+        public Vehicle build() {
+            return new Vehicle(locator, data, bodilyInjury, propertyDamage, collision, comprehensive, uninsuredMotorist);
+        }
+    }
+}
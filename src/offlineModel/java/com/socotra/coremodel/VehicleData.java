@@ -0,0 +1,61 @@
+package com.socotra.coremodel;
+
+import java.math.BigDecimal;
+
+/**
+ * Stand-in for the generated Vehicle exposure data (socotra-config/exposures/Vehicle).
+ */
+public record VehicleData(String vehicleType, String vin, String make, String model, int year, BigDecimal value, Address garagingAddress) {
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public static final class Builder {
+        private String vehicleType;
+        private String vin;
+        private String make;
+        private String model;
+        private int year;
+        private BigDecimal value;
+        private Address garagingAddress;
+
+        public Builder vehicleType(String vehicleType) {
+            this.vehicleType = vehicleType;
+            return this;
+        }
+
+        public Builder vin(String vin) {
+            this.vin = vin;
+            return this;
+        }
+
+        public Builder make(String make) {
+            this.make = make;
+            return this;
+        }
+
+        public Builder model(String model) {
+            this.model = model;
+            return this;
+        }
+
+        public Builder year(int year) {
+            this.year = year;
+            return this;
+        }
+
+        public Builder value(BigDecimal value) {
+            this.value = value;
+            return this;
+        }
+
+        public Builder garagingAddress(Address garagingAddress) {
+            this.garagingAddress = garagingAddress;
+            return this;
+        }
+
+        public VehicleData build() {
+            return new VehicleData(vehicleType, vin, make, model, year, value, garagingAddress);
+        }
+    }
+}
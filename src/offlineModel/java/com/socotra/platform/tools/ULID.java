@@ -0,0 +1,58 @@
+package com.socotra.platform.tools;
+
+import java.security.SecureRandom;
+
+/**
+ * Stand-in for the platform ULID locator type: 26 Crockford base32 characters,
+ * a 48-bit millisecond timestamp followed by 80 random bits.
+ */
+public final class ULID implements Comparable<ULID> {
+    private static final char[] ALPHABET = "0123456789ABCDEFGHJKMNPQRSTVWXYZ".toCharArray();
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    private final String value;
+
+    private ULID(String value) {
+        this.value = value;
+    }
+
+    public static ULID generate() {
+        char[] chars = new char[26];
+        long time = System.currentTimeMillis();
+        for (int i = 9; i >= 0; i--) {
+            chars[i] = ALPHABET[(int) (time & 31)];
+            time >>>= 5;
+        }
+        for (int i = 10; i < 26; i++) {
+            chars[i] = ALPHABET[RANDOM.nextInt(32)];
+        }
+        return new ULID(new String(chars));
+    }
+
+    public static ULID from(String value) {
+        if (value == null || value.length() != 26) {
+            throw new IllegalArgumentException("Invalid ULID: " + value);
+        }
+        return new ULID(value);
+    }
+
+    @Override
+    public int compareTo(ULID other) {
+        return value.compareTo(other.value);
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        return other instanceof ULID && ((ULID) other).value.equals(value);
+    }
+
+    @Override
+    public int hashCode() {
+        return value.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return value;
+    }
+}